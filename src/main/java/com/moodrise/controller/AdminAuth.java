@@ -0,0 +1,47 @@
+// src/main/java/com/moodrise/controller/AdminAuth.java
+package com.moodrise.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards the operator routes under {@code /api/admin} ({@link AdminController}):
+ * each request must carry moodrise.admin.secret in the {@value #SECRET_HEADER}
+ * header. With no secret set they are all refused. {@link AdminController}
+ * has no {@code @CrossOrigin}, so browsers on other origins cannot send the
+ * header either.
+ */
+@Configuration
+public class AdminAuth implements WebMvcConfigurer, HandlerInterceptor {
+
+    public static final String SECRET_HEADER = "X-Admin-Secret";
+
+    @Value("${moodrise.admin.secret:}")
+    private String secret;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/admin/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String given = request.getHeader(SECRET_HEADER);
+        // compared in constant time
+        if (secret.isEmpty() || given == null || !MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "admin secret required");
+        }
+        return true;
+    }
+}
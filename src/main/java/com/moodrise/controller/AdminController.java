@@ -0,0 +1,42 @@
+// src/main/java/com/moodrise/controller/AdminController.java
+package com.moodrise.controller;
+
+import com.moodrise.dto.CatalogReload;
+import com.moodrise.service.ContentService;
+import com.moodrise.service.SsePushChannel;
+import com.moodrise.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Operator routes, guarded by {@link AdminAuth}. Kept apart from
+ * {@link ApiController} so they stay out of its open CORS policy.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ContentService content;
+    private final UserService localUsers;   // this node's users only
+    private final SsePushChannel push;
+
+    @PostMapping("/catalog/reload")
+    public ResponseEntity<CatalogReload> reloadCatalog() {
+        content.reloadAsync();
+        return ResponseEntity.accepted().body(new CatalogReload(true, content.catalogVersion()));
+    }
+
+    // userId adds that user's footprint if it is on heap here; nothing is faulted in or pulled
+    @GetMapping("/memory")
+    public Map<String, Object> memory(@RequestParam(required = false) String userId) {
+        Map<String, Object> report = localUsers.memoryReport(userId);
+        report.put("pushStreams", push.openStreams());
+        report.put("pushOverflows", push.overflows());
+        report.put("pushBeatsSkipped", push.beatsSkipped());
+        return report;
+    }
+}
@@ -3,15 +3,27 @@ package com.moodrise.controller;
 
 import com.moodrise.dto.*;
 import com.moodrise.model.Category;
-import com.moodrise.model.ContentItem;
+import com.moodrise.model.DaySummary;
 import com.moodrise.model.Reaction;
+import com.moodrise.model.UserState;
 import com.moodrise.service.ContentService;
 import com.moodrise.service.NotificationsService;
-import com.moodrise.service.UserService;
+import com.moodrise.service.SsePushChannel;
+import com.moodrise.service.UserStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
@@ -20,40 +32,48 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*") // open CORS for hackathon demo
+@CrossOrigin(origins = "*", exposedHeaders = ApiController.NEXT_CURSOR) // open CORS for hackathon demo
 public class ApiController {
 
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final int MAX_FEEDBACK_BATCH = 1000;
+    private static final int MAX_PAGE = 100;
+
     private final ContentService content;
-    private final UserService users;
+    private final UserStore users;
     private final NotificationsService notifications;
+    private final SsePushChannel push;
 
     // ---- Session & Mood ----
 
     @PostMapping("/session/start")
-    public ResponseEntity<?> start(@RequestBody StartSessionRequest req) {
-        users.startSession(req.getUserId(), req.getMoodStart());
-        return ResponseEntity.ok(Map.of("ok", true));
+    public ResponseEntity<OkResponse> start(@RequestBody StartSessionRequest req) {
+        String zone = req.getTimezone();
+        if (zone != null) {
+            try {
+                zone = UserState.zone(zone).getId();
+            } catch (DateTimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown timezone " + zone);
+            }
+        }
+        users.startSession(req.getUserId(), req.getMoodStart(), zone);
+        return ResponseEntity.ok(OkResponse.OK);
     }
 
     @PostMapping("/session/check")
-    public ResponseEntity<?> check(@RequestBody MoodCheckRequest req) {
+    public ResponseEntity<MoodCheckResponse> check(@RequestBody MoodCheckRequest req) {
         users.moodCheck(req.getUserId(), req.getMood());
-        return ResponseEntity.ok(Map.of(
-                "ok", true,
-                "nextCheckTs", users.nextCheckTs(req.getUserId())
-        ));
+        return ResponseEntity.ok(new MoodCheckResponse(true, users.nextCheckTs(req.getUserId())));
     }
 
     @PostMapping("/session/end")
-    public ResponseEntity<?> end(@RequestBody EndSessionRequest req) {
-        Map<String, Object> summary = users.endSession(req.getUserId(), req.getMoodEnd());
-        return ResponseEntity.ok(summary);
+    public ResponseEntity<SessionSummary> end(@RequestBody EndSessionRequest req) {
+        return ResponseEntity.ok(users.endSession(req.getUserId(), req.getMoodEnd()));
     }
 
     @GetMapping("/session/next-check")
-    public ResponseEntity<?> nextCheck(@RequestParam String userId) {
-        Instant ts = users.nextCheckTs(userId);
-        return ResponseEntity.ok(Map.of("nextCheckTs", ts));
+    public ResponseEntity<NextCheck> nextCheck(@RequestParam String userId) {
+        return ResponseEntity.ok(new NextCheck(users.nextCheckTs(userId)));
     }
 
     // ---- Usage Limit ----
@@ -65,50 +85,164 @@ public class ApiController {
 
     // ---- Feed & Feedback ----
 
+    // next page: pass the X-Next-Cursor response header back as ?cursor=
+    // items go out as the JSON encoded when the catalog was loaded
+    // 304 while the catalog, the ranking of the tab and its backup, and the user's hidden items stand
+    // served by the user's owner node, so its cursors stay on one node too; others redirect there
     @GetMapping("/content")
-    public List<ContentItem> feed(
+    public ResponseEntity<JsonSlices> feed(
             @RequestParam String userId,
             @RequestParam int mood,
             @RequestParam Category tab,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request
     ) {
+        checkLimit(limit);
+        ResponseEntity<JsonSlices> there = toOwner(userId, request);
+        if (there != null) return there;
         users.recordInteraction(userId);
-        return content.curated(mood, tab, limit, users.hidden(userId));
+        FeedPage page;
+        try {
+            String tag = users.versions(userId).hidden() + "." + content.feedVersion(mood, tab, cursor);
+            if (notModified(request, tag)) return null;
+            page = content.page(mood, tab, limit, users.hidden(userId), cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor", e);
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.getNextCursor() != null) ok.header(NEXT_CURSOR, page.getNextCursor());
+        return ok.body(new JsonSlices(page.getJson(), page.getItems()));
     }
 
     @PostMapping("/feedback")
-    public ResponseEntity<?> feedback(@RequestBody FeedbackRequest req) {
+    public ResponseEntity<OkResponse> feedback(@RequestBody FeedbackRequest req) {
         users.recordInteraction(req.getUserId());
         content.applyFeedback(req.getItemId(), req.getReaction());
-        return ResponseEntity.ok(Map.of("ok", true));
+        return ResponseEntity.ok(OkResponse.OK);
+    }
+
+    // one call per scroll burst instead of one per reaction
+    @PostMapping("/feedback/batch")
+    public ResponseEntity<FeedbackBatchResult> feedbackBatch(@RequestBody FeedbackBatchRequest req) {
+        List<FeedbackEvent> events = req.getEvents() == null ? List.of() : req.getEvents();
+        if (events.size() > MAX_FEEDBACK_BATCH)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + MAX_FEEDBACK_BATCH + " events per batch");
+        users.recordInteraction(req.getUserId());
+        int items = content.applyFeedback(events);
+        return ResponseEntity.ok(new FeedbackBatchResult(true, events.size(), items));
     }
 
     @PostMapping("/hide")
-    public ResponseEntity<?> hide(@RequestBody HideRequest req) {
+    public ResponseEntity<OkResponse> hide(@RequestBody HideRequest req) {
         users.hide(req.getUserId(), req.getItemId());
-        return ResponseEntity.ok(Map.of("ok", true));
+        return ResponseEntity.ok(OkResponse.OK);
     }
 
     // ---- Notifications (wellness nudges / good news–style tips) ----
 
     @GetMapping("/notifications/today")
     public List<String> today(@RequestParam String userId) {
-        Integer latestMood = users.getOrCreate(userId).getMoodCurrent();
+        Integer latestMood = users.latestMood(userId);
         users.recordInteraction(userId);
         return notifications.todayReminders(latestMood);
     }
 
+    // ---- Push ----
+
+    /**
+     * Event stream replacing the next-check, limit and notifications polls:
+     * {@code state} (nextCheckTs, limit) on connect, then {@code check-due},
+     * {@code daily-cap-reached} and {@code reminder} as they happen. Streams
+     * are served by the user's owner node; other nodes redirect there.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@RequestParam String userId, ServletWebRequest request) {
+        ResponseEntity<SseEmitter> there = toOwner(userId, request);
+        if (there != null) return there;
+        StreamState state = new StreamState(users.nextCheckTs(userId), users.limitStatus(userId));
+        SseEmitter stream = push.subscribe(userId, "state", state);
+        notifications.scheduleReminders(userId, users.latestMood(userId));
+        return ResponseEntity.ok(stream);
+    }
+
+    // ---- Bootstrap ----
+
+    /**
+     * What the app loads on open (next check, limit, streak, reminders and the
+     * first feed page) in one call that loads the user once. {@code mood}
+     * defaults to the user's latest mood, then 3. Served by the user's owner
+     * node like the feed, so the page's cursor is kept where it is followed.
+     */
+    @GetMapping("/bootstrap")
+    public ResponseEntity<Bootstrap> bootstrap(@RequestParam String userId,
+                                               @RequestParam(required = false) Integer mood,
+                                               @RequestParam Category tab,
+                                               @RequestParam(defaultValue = "10") int limit,
+                                               ServletWebRequest request) {
+        checkLimit(limit);
+        ResponseEntity<Bootstrap> there = toOwner(userId, request);
+        if (there != null) return there;
+        UserSummary user = users.summary(userId);
+        int feedMood = mood != null ? mood : user.getLatestMood() != null ? user.getLatestMood() : 3;
+        FeedPage page = content.page(feedMood, tab, limit, user.getHidden(), null);
+        return ResponseEntity.ok(Bootstrap.builder()
+                .nextCheckTs(user.getNextCheckTs())
+                .latestMood(user.getLatestMood())
+                .limit(user.getLimit())
+                .streak(user.getStreak())
+                .reminders(notifications.todayReminders(user.getLatestMood()))
+                .content(new JsonSlices(page.getJson(), page.getItems()))
+                .nextCursor(page.getNextCursor())
+                .build());
+    }
+
     // ---- Calendar & Streak ----
 
+    // served by the user's owner node, like the feed
     @GetMapping("/calendar")
-    public Map<LocalDate, ?> calendar(@RequestParam String userId) {
+    public ResponseEntity<Map<LocalDate, DaySummary>> calendar(@RequestParam String userId,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                      ServletWebRequest request) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from is after to");
+        }
+        ResponseEntity<Map<LocalDate, DaySummary>> there = toOwner(userId, request);
+        if (there != null) return there;
         users.recordInteraction(userId);
-        return users.calendar(userId);
+        if (notModified(request, users.versions(userId).calendar())) return null;
+        return ResponseEntity.ok(users.calendar(userId, from, to));
     }
 
     @GetMapping("/calendar/streak")
-    public Map<String, Object> streak(@RequestParam String userId) {
+    public ResponseEntity<Streaks> streak(@RequestParam String userId, ServletWebRequest request) {
+        ResponseEntity<Streaks> there = toOwner(userId, request);
+        if (there != null) return there;
         users.recordInteraction(userId);
-        return Map.of("goodMoodStreakDays", users.goodMoodStreak(userId));
+        if (notModified(request, users.versions(userId).streak())) return null;
+        return ResponseEntity.ok(users.streaks(userId));
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit > MAX_PAGE) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + MAX_PAGE + " items per page");
+    }
+
+    // the same request sent on to the user's owner node, or null if that is this node.
+    // Reads that touch the user several times go there once instead of once per touch
+    private <T> ResponseEntity<T> toOwner(String userId, ServletWebRequest request) {
+        String owner = users.remoteOwner(userId);
+        if (owner == null) return null;
+        URI there = UriComponentsBuilder.fromHttpUrl(owner).path(request.getRequest().getRequestURI())
+                .query(request.getRequest().getQueryString()).build(true).toUri();
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT).location(there).build();
+    }
+
+    // If-None-Match check on a tag read before the data; true means a 304 is already set
+    private static boolean notModified(ServletWebRequest request, String tag) {
+        // one tag for every format, so caches must also key on Accept, tagged or not
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (tag == null) return false;
+        return request.checkNotModified("W/\"" + tag + "\"");
     }
 }
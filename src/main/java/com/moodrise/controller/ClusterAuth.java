@@ -0,0 +1,46 @@
+// src/main/java/com/moodrise/controller/ClusterAuth.java
+package com.moodrise.controller;
+
+import com.moodrise.service.PartitionedUserStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards the node-to-node routes under {@code /cluster}: each request must
+ * carry moodrise.cluster.secret in the {@value PartitionedUserStore#SECRET_HEADER}
+ * header. With no secret set (a single node) they are all refused. The
+ * routes should not be reachable from outside anyway; this is what stops a
+ * client that gets through.
+ */
+@Configuration
+public class ClusterAuth implements WebMvcConfigurer, HandlerInterceptor {
+
+    @Value("${moodrise.cluster.secret:}")
+    private String secret;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/cluster/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String given = request.getHeader(PartitionedUserStore.SECRET_HEADER);
+        // constant time, so the secret cannot be guessed a byte at a time
+        if (secret.isEmpty() || given == null || !MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "cluster secret required");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+// src/main/java/com/moodrise/controller/ClusterController.java
+package com.moodrise.controller;
+
+import com.moodrise.dto.*;
+import com.moodrise.service.PartitionedUserStore;
+import com.moodrise.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Node-to-node endpoints of the partitioned user store, kept off the client
+ * API under {@code /cluster} and guarded by {@link ClusterAuth}. Internal calls
+ * always run on this node's own users, so a forwarded request is never
+ * forwarded again.
+ */
+@RestController
+@RequestMapping("/cluster")
+@RequiredArgsConstructor
+public class ClusterController {
+
+    private final UserService local;
+    private final Optional<PartitionedUserStore> cluster;
+
+    // ---- Internal: forwarded user operations ----
+
+    @PostMapping("/users/{userId}/{op}")
+    public Object call(@PathVariable String userId, @PathVariable String op,
+                       @RequestBody(required = false) Map<String, String> args) {
+        Map<String, String> a = args == null ? Map.of() : args;
+        switch (op) {
+            case "start" -> local.startSession(userId, Integer.parseInt(a.get("mood")), a.get("zone"));
+            case "check" -> local.moodCheck(userId, Integer.parseInt(a.get("mood")));
+            case "end" -> {
+                return local.endSession(userId, Integer.parseInt(a.get("mood")));
+            }
+            case "interaction" -> local.recordInteraction(userId);
+            case "hide" -> local.hide(userId, a.get("itemId"));
+            case "limit" -> {
+                return local.limitStatus(userId);
+            }
+            case "next-check" -> {
+                return new NextCheck(local.nextCheckTs(userId));
+            }
+            case "mood" -> {
+                return new LatestMood(local.latestMood(userId));
+            }
+            case "hidden" -> {
+                return local.hiddenItemIds(userId);
+            }
+            case "calendar" -> {
+                LocalDate from = a.get("from") == null ? null : LocalDate.parse(a.get("from"));
+                LocalDate to = a.get("to") == null ? null : LocalDate.parse(a.get("to"));
+                return local.calendar(userId, from, to);
+            }
+            case "streaks" -> {
+                return local.streaks(userId);
+            }
+            case "versions" -> {
+                return local.versions(userId);
+            }
+            case "summary" -> {
+                UserSummary summary = local.summary(userId);
+                summary.setHiddenItemIds(local.itemIds(summary.getHidden()));
+                return summary;
+            }
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown user operation " + op);
+        }
+        return OkResponse.OK;
+    }
+
+    /** A new owner pulling a user it was asked about; the user stays here until its handoff is acknowledged. */
+    @PostMapping(value = "/users/{userId}/release", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> release(@PathVariable String userId) {
+        byte[] state = local.handOff(userId);
+        return state == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(state);
+    }
+
+    @PostMapping(value = "/users/adopt", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public OkResponse adopt(@RequestBody byte[] state) {
+        local.adopt(state);
+        return OkResponse.OK;
+    }
+
+    // ---- Membership ----
+
+    @GetMapping("/nodes")
+    public ClusterNodes cluster() {
+        PartitionedUserStore store = partitioned();
+        return new ClusterNodes(store.self(), store.nodes());
+    }
+
+    /**
+     * Sets the node list (base URLs, each in moodrise.cluster.allowed-nodes) and
+     * rebalances; sent on to every other node unless propagate=false.
+     */
+    @PostMapping("/nodes")
+    public ResponseEntity<ClusterNodes> setNodes(@RequestBody Map<String, List<String>> body,
+                                      @RequestParam(defaultValue = "true") boolean propagate) {
+        List<String> nodes = body.get("nodes");
+        if (nodes == null || nodes.isEmpty()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "nodes required");
+        PartitionedUserStore store = partitioned();
+        if (propagate) store.broadcast(nodes);
+        else store.setNodes(nodes);
+        return ResponseEntity.accepted().body(new ClusterNodes(store.self(), nodes));
+    }
+
+    /** Sent by a node once it has pushed away all users it no longer owns. */
+    @PostMapping("/drained")
+    public OkResponse drained(@RequestParam String node) {
+        partitioned().drained(node);
+        return OkResponse.OK;
+    }
+
+    private PartitionedUserStore partitioned() {
+        return cluster.orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                "not clustered: set moodrise.cluster.self"));
+    }
+}
@@ -0,0 +1,51 @@
+// src/main/java/com/moodrise/controller/ConnectionBuffers.java
+package com.moodrise.controller;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Smaller per-connection buffers than Tomcat's 8 KB defaults. An open event
+ * stream keeps its connection's buffers for as long as it stays open, and
+ * the requests and responses here are small, so larger ones only cost more
+ * writes. {@code response-buffer} is the servlet response buffer, which
+ * Tomcat takes from the protocol handler.
+ */
+@Configuration
+public class ConnectionBuffers implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    @Value("${moodrise.http.socket-buffer:2KB}")
+    private DataSize socketBuffer;
+    @Value("${moodrise.http.response-buffer:2KB}")
+    private DataSize responseBuffer;
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        factory.setProtocol(LeanHttp11NioProtocol.class.getName());
+        factory.addConnectorCustomizers(connector -> {
+            String bytes = String.valueOf(socketBuffer.toBytes());
+            connector.setProperty("socket.appReadBufSize", bytes);
+            connector.setProperty("socket.appWriteBufSize", bytes);
+            connector.setProperty("responseBufferSize", String.valueOf(responseBuffer.toBytes()));
+        });
+    }
+
+    /** HTTP/1.1 over NIO, with a response buffer of {@code responseBufferSize} instead of 8 KB. */
+    public static class LeanHttp11NioProtocol extends Http11NioProtocol {
+
+        private int responseBufferSize = -1;
+
+        public void setResponseBufferSize(int bytes) {
+            responseBufferSize = bytes;
+        }
+
+        @Override
+        public int getDesiredBufferSize() {
+            return responseBufferSize;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+// src/main/java/com/moodrise/controller/JsonSlicesConverter.java
+package com.moodrise.controller;
+
+import com.moodrise.dto.JsonSlices;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes {@link JsonSlices} by copying each pre-encoded element straight to
+ * the response, with a known Content-Length. Spring Boot puts converter beans
+ * ahead of Jackson's, which would otherwise serialize the record itself.
+ */
+@Component
+public class JsonSlicesConverter extends AbstractHttpMessageConverter<JsonSlices> {
+
+    public JsonSlicesConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonSlices.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonSlices readInternal(Class<? extends JsonSlices> clazz, HttpInputMessage in) {
+        throw new HttpMessageNotReadableException("JsonSlices is write-only", in);
+    }
+
+    @Override
+    protected Long getContentLength(JsonSlices slices, MediaType contentType) {
+        return slices.length();
+    }
+
+    @Override
+    protected void writeInternal(JsonSlices slices, HttpOutputMessage out) throws IOException {
+        OutputStream body = out.getBody();
+        body.write('[');
+        boolean first = true;
+        for (byte[] e : slices.elements()) {
+            if (!first) body.write(',');
+            body.write(e);
+            first = false;
+        }
+        body.write(']');
+    }
+}
@@ -0,0 +1,35 @@
+// src/main/java/com/moodrise/controller/WireFormats.java
+package com.moodrise.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary response formats for clients that ask for them: CBOR
+ * ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}),
+ * both from the same Jackson setup as JSON, so a response has the same shape
+ * in every format. They go after the JSON converters, so requests without a
+ * specific Accept (internal calls included) still get JSON.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WireFormats implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(builder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(builder.getObject().factory(new SmileFactory()).build()));
+    }
+}
@@ -0,0 +1,19 @@
+// src/main/java/com/moodrise/dto/Bootstrap.java
+package com.moodrise.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Everything the app shows on open, as GET /api/bootstrap returns it. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Bootstrap {
+    private Instant nextCheckTs;         // as /session/next-check
+    private Integer latestMood;
+    private LimitStatus limit;           // as /limit/status
+    private Streaks streak;              // as /calendar/streak
+    private List<String> reminders;      // as /notifications/today
+    private JsonSlices content;          // first page, as /content
+    private String nextCursor;           // X-Next-Cursor of that page; null when exhausted
+}
@@ -0,0 +1,5 @@
+// src/main/java/com/moodrise/dto/CatalogReload.java
+package com.moodrise.dto;
+
+/** A reload was started; {@code catalogVersion} is the version serving until it completes. */
+public record CatalogReload(boolean ok, long catalogVersion) { }
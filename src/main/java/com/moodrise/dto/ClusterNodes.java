@@ -0,0 +1,7 @@
+// src/main/java/com/moodrise/dto/ClusterNodes.java
+package com.moodrise.dto;
+
+import java.util.List;
+
+/** This node's base URL and the node list it partitions users over. */
+public record ClusterNodes(String self, List<String> nodes) { }
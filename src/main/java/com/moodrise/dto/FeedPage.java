@@ -0,0 +1,14 @@
+// src/main/java/com/moodrise/dto/FeedPage.java
+package com.moodrise.dto;
+
+import com.moodrise.model.ContentItem;
+import lombok.*;
+
+import java.util.List;
+
+@Getter @AllArgsConstructor
+public class FeedPage {
+    private List<ContentItem> items;
+    private List<byte[]> json;      // each item's JSON, encoded when the catalog was loaded
+    private String nextCursor;      // null when the feed is exhausted
+}
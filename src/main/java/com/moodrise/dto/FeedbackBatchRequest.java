@@ -0,0 +1,12 @@
+// src/main/java/com/moodrise/dto/FeedbackBatchRequest.java
+package com.moodrise.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class FeedbackBatchRequest {
+    private String userId;
+    private List<FeedbackEvent> events;   // reactions collected while scrolling
+}
@@ -0,0 +1,5 @@
+// src/main/java/com/moodrise/dto/FeedbackBatchResult.java
+package com.moodrise.dto;
+
+/** {@code events} accepted, changing the score of {@code items} distinct items. */
+public record FeedbackBatchResult(boolean ok, int events, int items) { }
@@ -0,0 +1,12 @@
+// src/main/java/com/moodrise/dto/FeedbackEvent.java
+package com.moodrise.dto;
+
+import com.moodrise.model.Reaction;
+import lombok.*;
+
+/** One reaction in a batch; reactions apply in any order, so no timestamp is kept. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class FeedbackEvent {
+    private String itemId;
+    private Reaction reaction;
+}
@@ -0,0 +1,126 @@
+// src/main/java/com/moodrise/dto/JsonSlices.java
+package com.moodrise.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A response body written as a JSON array of elements that are already
+ * encoded JSON. Other formats (CBOR, Smile) serialize {@code value} instead.
+ */
+@JsonSerialize(using = JsonSlices.Writer.class)
+public record JsonSlices(List<byte[]> elements, Object value) {
+
+    /** Encoded length: brackets, elements and the commas between them. */
+    public long length() {
+        long n = 2 + Math.max(0, elements.size() - 1);
+        for (byte[] e : elements) n += e.length;
+        return n;
+    }
+
+    /** Inside another body, as /bootstrap's first page: the elements copied in as raw JSON. */
+    public static class Writer extends StdSerializer<JsonSlices> {
+
+        public Writer() {
+            super(JsonSlices.class);
+        }
+
+        @Override
+        public void serialize(JsonSlices slices, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!(gen instanceof JsonGeneratorImpl)) {
+                provider.defaultSerializeValue(slices.value(), gen);
+                return;
+            }
+            gen.writeStartArray(slices, slices.elements().size());
+            for (byte[] e : slices.elements()) gen.writeRawValue(new Raw(e));
+            gen.writeEndArray();
+        }
+    }
+
+    // encoded JSON that a generator copies as is; it is never written as a quoted string
+    private record Raw(byte[] utf8) implements SerializableString {
+
+        @Override
+        public String getValue() {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + utf8.length > buffer.length) return -1;
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            String s = getValue();
+            if (offset + s.length() > buffer.length) return -1;
+            s.getChars(0, s.length(), buffer, offset);
+            return s.length();
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (utf8.length > buffer.remaining()) return -1;
+            buffer.put(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            throw new UnsupportedOperationException("raw JSON");
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            throw new UnsupportedOperationException("raw JSON");
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            throw new UnsupportedOperationException("raw JSON");
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            throw new UnsupportedOperationException("raw JSON");
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) {
+            throw new UnsupportedOperationException("raw JSON");
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            throw new UnsupportedOperationException("raw JSON");
+        }
+    }
+}
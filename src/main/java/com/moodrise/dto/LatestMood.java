@@ -0,0 +1,5 @@
+// src/main/java/com/moodrise/dto/LatestMood.java
+package com.moodrise.dto;
+
+/** Most recent mood today, 1..5; null when none was given. */
+public record LatestMood(Integer mood) { }
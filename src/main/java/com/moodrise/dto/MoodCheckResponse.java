@@ -0,0 +1,6 @@
+// src/main/java/com/moodrise/dto/MoodCheckResponse.java
+package com.moodrise.dto;
+
+import java.time.Instant;
+
+public record MoodCheckResponse(boolean ok, Instant nextCheckTs) { }
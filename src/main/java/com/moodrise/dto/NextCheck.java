@@ -0,0 +1,7 @@
+// src/main/java/com/moodrise/dto/NextCheck.java
+package com.moodrise.dto;
+
+import java.time.Instant;
+
+/** When the next mood re-check is due; null when no session is running. */
+public record NextCheck(Instant nextCheckTs) { }
@@ -0,0 +1,8 @@
+// src/main/java/com/moodrise/dto/OkResponse.java
+package com.moodrise.dto;
+
+/** Acknowledgement body of writes that return nothing else. */
+public record OkResponse(boolean ok) {
+
+    public static final OkResponse OK = new OkResponse(true);
+}
@@ -0,0 +1,10 @@
+// src/main/java/com/moodrise/dto/SessionSummary.java
+package com.moodrise.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** Result of ending a session; without a start mood there is no delta. */
+public record SessionSummary(Integer moodStart,
+                             int moodEnd,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) Integer delta,
+                             String tip) { }
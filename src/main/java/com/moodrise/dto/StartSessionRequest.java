@@ -7,4 +7,5 @@ import lombok.*;
 public class StartSessionRequest {
     private String userId;
     private int moodStart; // 1..5
+    private String timezone; // optional IANA id, e.g. "Europe/Berlin"; days roll over at its midnight
 }
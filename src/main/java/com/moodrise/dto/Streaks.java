@@ -0,0 +1,8 @@
+// src/main/java/com/moodrise/dto/Streaks.java
+package com.moodrise.dto;
+
+/** Good-mood streaks: days in a row ending with mood >= 4. */
+public record Streaks(int goodMoodStreakDays, int longestGoodMoodStreakDays) {
+
+    public static final Streaks NONE = new Streaks(0, 0);
+}
@@ -0,0 +1,7 @@
+// src/main/java/com/moodrise/dto/StreamState.java
+package com.moodrise.dto;
+
+import java.time.Instant;
+
+/** First event of an /events stream: what the next-check and limit polls returned. */
+public record StreamState(Instant nextCheckTs, LimitStatus limit) { }
@@ -0,0 +1,23 @@
+// src/main/java/com/moodrise/dto/UserSummary.java
+package com.moodrise.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.moodrise.model.OrdinalBitmap;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/** One user's reads for /bootstrap, taken in a single load of the user. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UserSummary {
+    private LimitStatus limit;
+    private Instant nextCheckTs;         // null: no check pending
+    private Integer latestMood;          // null: no mood today
+    private Streaks streak;              // as /calendar/streak
+    @JsonIgnore
+    private OrdinalBitmap hidden;        // this node's ordinals
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> hiddenItemIds;  // hidden by item id, only between nodes
+}
@@ -0,0 +1,11 @@
+// src/main/java/com/moodrise/dto/UserVersions.java
+package com.moodrise.dto;
+
+/**
+ * Opaque change tags for one user, for ETags: {@code calendar} changes with
+ * the recorded days and their moods and with today's usage, by the minute;
+ * {@code streak} with the days and the user's date (null when that cannot be
+ * vouched for); {@code hidden} with the hidden items. Tags are shared by the
+ * users of a stripe, so they also change when a stripe-mate's do.
+ */
+public record UserVersions(String calendar, String streak, String hidden) { }
@@ -0,0 +1,191 @@
+// src/main/java/com/moodrise/model/CalendarStore.java
+package com.moodrise.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * One user's day history as packed columns indexed by epoch day, 3 bytes a day:
+ * a mood byte (recorded flag, start mood in bits 0-2, end mood in bits 3-5,
+ * 0 = unset) and a char of usage seconds. Days outside the recorded span cost
+ * nothing; gaps inside it cost their 3 bytes. End moods also feed a
+ * {@link StreakTracker}, so streaks never need a walk over the history.
+ * Not thread-safe — the owning user's lock guards it.
+ */
+public final class CalendarStore {
+
+    /** Shared empty history; never written (UserState allocates a real one on first update). */
+    public static final CalendarStore EMPTY = new CalendarStore();
+
+    private static final int RECORDED = 0x40;
+    private static final int MOOD_MASK = 0x07;
+    private static final int MAX_USAGE_SECONDS = 0xFFFF;
+    private static final int GOOD_MOOD = 4;   // a day counts toward streaks when it ends >= 4
+
+    private int base;                     // epoch day of index 0
+    private int length;                   // days from base through the last recorded one
+    private byte[] moods = new byte[0];
+    private char[] usage = new char[0];
+    private final StreakTracker streaks = new StreakTracker();
+    private int edits;                    // not stored: days or moods changed, usage aside
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /** First recorded epoch day; only meaningful when not empty. */
+    public int firstDay() {
+        return base;
+    }
+
+    /** Last recorded epoch day; only meaningful when not empty. */
+    public int lastDay() {
+        return base + length - 1;
+    }
+
+    public boolean has(int day) {
+        int i = day - base;
+        return i >= 0 && i < length && (moods[i] & RECORDED) != 0;
+    }
+
+    /** Start mood 1..5, or 0 if unset or the day is not recorded. */
+    public int moodStart(int day) {
+        return has(day) ? moods[day - base] & MOOD_MASK : 0;
+    }
+
+    /** End mood 1..5, or 0 if unset or the day is not recorded. */
+    public int moodEnd(int day) {
+        return has(day) ? (moods[day - base] >> 3) & MOOD_MASK : 0;
+    }
+
+    /**
+     * Counts changes to the recorded days and their moods since this instance
+     * was created or loaded; usage updates of a recorded day do not count.
+     */
+    public int edits() {
+        return edits;
+    }
+
+    public int usageSeconds(int day) {
+        return has(day) ? usage[day - base] : 0;
+    }
+
+    /** Records the day if it is not yet, with the given moods (0 = unset) and no usage. */
+    public void open(int day, int moodStart, int moodEnd) {
+        int i = slot(day);
+        if ((moods[i] & RECORDED) != 0) return;
+        moods[i] = pack(moodStart, moodEnd);
+        edits++;
+        streaks.update(day, moodEnd >= GOOD_MOOD);
+    }
+
+    public void setMoodStart(int day, int mood) {
+        int i = slot(day);
+        moods[i] = pack(mood, (moods[i] >> 3) & MOOD_MASK);
+        edits++;
+    }
+
+    public void setMoodEnd(int day, int mood) {
+        int i = slot(day);
+        moods[i] = pack(moods[i] & MOOD_MASK, mood);
+        streaks.update(day, mood >= GOOD_MOOD);
+        edits++;
+    }
+
+    public void setUsageSeconds(int day, long seconds) {
+        int i = slot(day);
+        if ((moods[i] & RECORDED) == 0) edits++;
+        moods[i] |= RECORDED;
+        usage[i] = (char) Math.max(0, Math.min(MAX_USAGE_SECONDS, seconds));
+    }
+
+    /**
+     * Consecutive good days ending today, or ending yesterday while today has
+     * no end mood yet (today's session can still extend the streak).
+     */
+    public int currentStreak(int today) {
+        return streaks.current(today, moodEnd(today) == 0);
+    }
+
+    public int longestStreak() {
+        return streaks.longest();
+    }
+
+    /** Recorded days in [from, to], in order; visits only the days in range. */
+    public void forEachDay(int from, int to, IntConsumer day) {
+        int lo = Math.max(from, base), hi = Math.min(to, lastDay());
+        for (int d = lo; d <= hi; d++) {
+            if ((moods[d - base] & RECORDED) != 0) day.accept(d);
+        }
+    }
+
+    /** The day as a DaySummary (nulls for unset moods), or null if not recorded. */
+    public DaySummary summary(int day) {
+        if (!has(day)) return null;
+        int start = moodStart(day), end = moodEnd(day);
+        return DaySummary.builder()
+                .moodStart(start == 0 ? null : start)
+                .moodEnd(end == 0 ? null : end)
+                .usageMillis(usageSeconds(day) * 1000L)
+                .build();
+    }
+
+    public long estimatedBytes() {
+        return 24 + ((16 + moods.length + 7) & ~7L) + ((16 + 2L * usage.length + 7) & ~7L) + streaks.estimatedBytes();
+    }
+
+    /** The recorded span only; streaks are rebuilt on read. */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(base);
+        out.writeInt(length);
+        out.write(moods, 0, length);
+        for (int i = 0; i < length; i++) out.writeChar(usage[i]);
+    }
+
+    public static CalendarStore readFrom(DataInput in) throws IOException {
+        CalendarStore c = new CalendarStore();
+        c.base = in.readInt();
+        c.length = in.readInt();
+        c.moods = new byte[c.length];
+        c.usage = new char[c.length];
+        in.readFully(c.moods);
+        for (int i = 0; i < c.length; i++) {
+            c.usage[i] = in.readChar();
+            if ((c.moods[i] & RECORDED) != 0) c.streaks.update(c.base + i, ((c.moods[i] >> 3) & MOOD_MASK) >= GOOD_MOOD);
+        }
+        return c;
+    }
+
+    private static byte pack(int start, int end) {
+        return (byte) (RECORDED | (start & MOOD_MASK) | (end & MOOD_MASK) << 3);
+    }
+
+    // index for a day, growing either end of the columns as needed
+    private int slot(int day) {
+        if (length == 0) base = day;
+        if (day < base) {
+            int shift = base - day;
+            int capacity = Math.max(length + shift, moods.length);
+            byte[] m = new byte[capacity];
+            char[] u = new char[capacity];
+            System.arraycopy(moods, 0, m, shift, length);
+            System.arraycopy(usage, 0, u, shift, length);
+            moods = m;
+            usage = u;
+            base = day;
+            length += shift;
+            return 0;
+        }
+        int i = day - base;
+        if (i >= moods.length) {
+            int capacity = Math.max(i + 1, Math.max(8, moods.length + (moods.length >> 1)));
+            moods = Arrays.copyOf(moods, capacity);
+            usage = Arrays.copyOf(usage, capacity);
+        }
+        if (i >= length) length = i + 1;
+        return i;
+    }
+}
@@ -2,13 +2,14 @@
 package com.moodrise.model;
 
 import lombok.*;
+import lombok.extern.jackson.Jacksonized;
 
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@Value @Builder(toBuilder = true) @Jacksonized
 public class ContentItem {
     private String id;               // e.g., "laugh_01"
     private Category category;       // Educate | Laugh | Motivate
     private ContentType type;        // text | image | video | article
     private String url;              // for image/video/article
     private String text;             // for text/overlay
-    private int score;               // reinforcement from reactions
+    private int score;               // starting score; live reinforcement is tracked by ContentService
 }
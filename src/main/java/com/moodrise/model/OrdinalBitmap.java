@@ -0,0 +1,120 @@
+// src/main/java/com/moodrise/model/OrdinalBitmap.java
+package com.moodrise.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable compressed set of non-negative ints (content ordinals), laid out
+ * like a Roaring bitmap: values are grouped by their high 16 bits and each
+ * group is a sorted char[] while small, or a 65536-bit long[] once dense.
+ * {@link #with(int)} copies only the touched group, so readers can hold on to
+ * an instance while a writer publishes the next one.
+ */
+public final class OrdinalBitmap {
+
+    public static final OrdinalBitmap EMPTY = new OrdinalBitmap(new char[0], new Object[0], 0);
+
+    private static final int ARRAY_MAX = 4096;   // past this a bitmap container is smaller
+
+    private final char[] keys;          // sorted high halves
+    private final Object[] containers;  // char[] (sorted low halves) or long[1024]
+    private final int cardinality;
+
+    private OrdinalBitmap(char[] keys, Object[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) return false;
+        int k = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (k < 0) return false;
+        char low = (char) value;
+        Object c = containers[k];
+        if (c instanceof long[] bits) return (bits[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) c, low) >= 0;
+    }
+
+    /** This set plus {@code value}; returns {@code this} if already present. */
+    public OrdinalBitmap with(int value) {
+        if (value < 0) throw new IllegalArgumentException("negative ordinal " + value);
+        if (contains(value)) return this;
+        char high = (char) (value >>> 16);
+        char low = (char) value;
+        int k = Arrays.binarySearch(keys, high);
+        if (k < 0) {
+            int at = -k - 1;
+            char[] nk = new char[keys.length + 1];
+            Object[] nc = new Object[containers.length + 1];
+            System.arraycopy(keys, 0, nk, 0, at);
+            System.arraycopy(containers, 0, nc, 0, at);
+            nk[at] = high;
+            nc[at] = new char[] { low };
+            System.arraycopy(keys, at, nk, at + 1, keys.length - at);
+            System.arraycopy(containers, at, nc, at + 1, containers.length - at);
+            return new OrdinalBitmap(nk, nc, cardinality + 1);
+        }
+        Object[] nc = containers.clone();
+        nc[k] = add(containers[k], low);
+        return new OrdinalBitmap(keys, nc, cardinality + 1);
+    }
+
+    private static Object add(Object container, char low) {
+        if (container instanceof long[] bits) {
+            long[] copy = bits.clone();
+            copy[low >>> 6] |= 1L << low;
+            return copy;
+        }
+        char[] arr = (char[]) container;
+        if (arr.length >= ARRAY_MAX) {
+            long[] bits = new long[1024];
+            for (char v : arr) bits[v >>> 6] |= 1L << v;
+            bits[low >>> 6] |= 1L << low;
+            return bits;
+        }
+        int at = -Arrays.binarySearch(arr, low) - 1;
+        char[] copy = new char[arr.length + 1];
+        System.arraycopy(arr, 0, copy, 0, at);
+        copy[at] = low;
+        System.arraycopy(arr, at, copy, at + 1, arr.length - at);
+        return copy;
+    }
+
+    /** Visits every value in ascending order. */
+    public void forEach(IntConsumer action) {
+        for (int k = 0; k < keys.length; k++) {
+            int high = keys[k] << 16;
+            if (containers[k] instanceof long[] bits) {
+                for (int w = 0; w < bits.length; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        action.accept(high | w << 6 | Long.numberOfTrailingZeros(word));
+                    }
+                }
+            } else {
+                for (char low : (char[]) containers[k]) action.accept(high | low);
+            }
+        }
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /** Approximate heap bytes held by this set (64-bit JVM, compressed oops). */
+    public long sizeInBytes() {
+        if (this == EMPTY) return 0;
+        long bytes = 24 + array(2L * keys.length) + array(4L * containers.length);
+        for (Object c : containers) bytes += c instanceof long[] ? array(8L * 1024) : array(2L * ((char[]) c).length);
+        return bytes;
+    }
+
+    private static long array(long payload) {
+        return (16 + payload + 7) & ~7L;
+    }
+}
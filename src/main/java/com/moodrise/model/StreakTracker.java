@@ -0,0 +1,157 @@
+// src/main/java/com/moodrise/model/StreakTracker.java
+package com.moodrise.model;
+
+import java.util.Arrays;
+
+/**
+ * Good-mood streaks over a bitmap of good days (one bit per epoch day). Keeps
+ * the latest run of good days and the longest run, so reads are O(1). Setting
+ * or clearing any day — late, backfilled or corrected — rescans only the runs
+ * next to it, a word (64 days) at a time. Only breaking the longest run
+ * rescans the whole bitmap, which is a few words per year of history.
+ */
+final class StreakTracker {
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private int wordBase;                 // epoch day / 64 of words[0]
+    private long[] words = new long[0];
+    private int runStart = NONE;          // latest run of good days, inclusive
+    private int runEnd = NONE;
+    private int longest;
+
+    int longest() {
+        return longest;
+    }
+
+    /**
+     * Good days in the run ending today, or ending yesterday while today has
+     * no end mood yet; 0 otherwise.
+     */
+    int current(int today, boolean todayOpen) {
+        if (runEnd == today || (runEnd == today - 1 && todayOpen)) return runEnd - runStart + 1;
+        return 0;
+    }
+
+    void update(int day, boolean good) {
+        if (get(day) == good) return;
+        if (good) {
+            set(day);
+            int s = prevClear(day) + 1, e = nextClear(day) - 1;
+            if (e >= runEnd) {
+                runStart = s;
+                runEnd = e;
+            }
+            longest = Math.max(longest, e - s + 1);
+            return;
+        }
+        int s = prevClear(day) + 1, e = nextClear(day) - 1;
+        clear(day);
+        if (e == runEnd) {
+            if (day < e) {
+                runStart = day + 1;
+            } else {
+                runEnd = prevSet(day - 1);
+                runStart = runEnd == NONE ? NONE : prevClear(runEnd) + 1;
+            }
+        }
+        if (e - s + 1 == longest) longest = scanLongest();
+    }
+
+    long estimatedBytes() {
+        return 32 + 16 + 8L * words.length;
+    }
+
+    private boolean get(int day) {
+        int w = (day >> 6) - wordBase;
+        return w >= 0 && w < words.length && (words[w] & 1L << day) != 0;
+    }
+
+    private void set(int day) {
+        int w = day >> 6;
+        if (words.length == 0) {
+            wordBase = w;
+        } else if (w < wordBase) {
+            long[] grown = new long[words.length + wordBase - w];
+            System.arraycopy(words, 0, grown, wordBase - w, words.length);
+            words = grown;
+            wordBase = w;
+        }
+        if (w - wordBase >= words.length) words = Arrays.copyOf(words, Math.max(w - wordBase + 1, words.length * 2));
+        words[w - wordBase] |= 1L << day;
+    }
+
+    private void clear(int day) {
+        words[(day >> 6) - wordBase] &= ~(1L << day);
+    }
+
+    // largest day <= d that is not good
+    private int prevClear(int d) {
+        int w = (d >> 6) - wordBase;
+        if (w < 0 || w >= words.length) return d;
+        long bits = ~words[w] & (-1L >>> (63 - (d & 63)));
+        while (bits == 0) {
+            if (--w < 0) return (wordBase << 6) - 1;
+            bits = ~words[w];
+        }
+        return ((wordBase + w) << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    // smallest day >= d that is not good
+    private int nextClear(int d) {
+        int w = (d >> 6) - wordBase;
+        if (w < 0 || w >= words.length) return d;
+        long bits = ~words[w] & (-1L << d);
+        while (bits == 0) {
+            if (++w == words.length) return (wordBase + w) << 6;
+            bits = ~words[w];
+        }
+        return ((wordBase + w) << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    // largest good day <= d, or NONE
+    private int prevSet(int d) {
+        int w = (d >> 6) - wordBase;
+        if (w < 0) return NONE;
+        long bits;
+        if (w >= words.length) {
+            w = words.length - 1;
+            bits = w < 0 ? 0 : words[w];
+        } else {
+            bits = words[w] & (-1L >>> (63 - (d & 63)));
+        }
+        while (bits == 0) {
+            if (--w < 0) return NONE;
+            bits = words[w];
+        }
+        return ((wordBase + w) << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    // smallest good day >= d, or NONE
+    private int nextSet(int d) {
+        int w = (d >> 6) - wordBase;
+        if (w >= words.length) return NONE;
+        long bits;
+        if (w < 0) {
+            w = 0;
+            bits = words[0];
+        } else {
+            bits = words[w] & (-1L << d);
+        }
+        while (bits == 0) {
+            if (++w == words.length) return NONE;
+            bits = words[w];
+        }
+        return ((wordBase + w) << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private int scanLongest() {
+        int best = 0;
+        for (int s = nextSet(wordBase << 6); s != NONE; ) {
+            int e = nextClear(s);
+            best = Math.max(best, e - s);
+            s = nextSet(e);
+        }
+        return best;
+    }
+}
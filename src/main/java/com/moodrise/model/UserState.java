@@ -3,26 +3,140 @@ package com.moodrise.model;
 
 import lombok.*;
 
-import java.time.Instant;
-import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.*;
+import java.time.ZoneId;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+/**
+ * Resident per-user state, laid out to stay small with millions of users:
+ * times are epoch millis ({@link #UNSET} = none), moods are bytes
+ * ({@link #NO_MOOD} = none), the day is an epoch day in the user's zone and the
+ * calendar store is only allocated once the user has a day to record. UserService converts to
+ * Instant/LocalDate/Integer at the API edge.
+ */
+@Getter @Setter
 public class UserState {
-    private String userId;
-
-    private LocalDate currentDay;
-    private Integer moodStart;         // session/day start mood
-    private Integer moodCurrent;       // most recent mood
-    private Instant sessionStartTs;    // when current session began
-    private Instant lastInteractionTs; // last any activity
-    private Instant nextCheckTs;       // next scheduled check time (server-side clock basis)
-    private long usageTodayMillis;     // accumulated active time today
-
-    private Set<String> hiddenItemIds; // per-user hide list (demo scope)
-    private Map<LocalDate, DaySummary> calendar; // by date
-    private int goodMoodStreakDays;    // consecutive days with moodEnd >= 4
+
+    public static final byte NO_MOOD = 0;
+    public static final long UNSET = 0L;
+
+    private final String userId;
+
+    private int epochDay;                 // current day in the user's zone (LocalDate.toEpochDay)
+    private ZoneId zone;                  // where the user's days roll over; null = server zone
+    private byte moodStart;               // session/day start mood, 1..5
+    private byte moodCurrent;             // most recent mood, 1..5
+    private long sessionStartMillis;      // when current session began
+    private long lastInteractionMillis;   // last any activity
+    private long nextCheckMillis;         // next scheduled check time (server clock)
+    private int usageTodayMillis;         // accumulated active time today, capped at the daily limit
+    private long lastAccessMillis;        // last load by any request; drives eviction, not persisted
+    private int eventSeq;                 // logged operations applied so far (UserEventLog)
+
+    private OrdinalBitmap hiddenItems = OrdinalBitmap.EMPTY;   // per-user hide list, by content ordinal
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private CalendarStore calendar;                            // by epoch day; null until first entry
+
+    private static final int FORMAT = 1;
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+    public UserState(String userId, int epochDay) {
+        this.userId = userId;
+        this.epochDay = epochDay;
+    }
+
+    /**
+     * Everything but lastAccessMillis, for the cold tier, snapshots and handoffs.
+     * Hidden items are written as item ids ({@code itemId} maps an ordinal):
+     * ordinals are handed out on first sight, so they differ between runs and nodes.
+     */
+    public byte[] toBytes(IntFunction<String> itemId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeUTF(userId);
+            out.writeInt(epochDay);
+            out.writeUTF(zone == null ? "" : zone.getId());
+            out.writeByte(moodStart);
+            out.writeByte(moodCurrent);
+            out.writeLong(sessionStartMillis);
+            out.writeLong(lastInteractionMillis);
+            out.writeLong(nextCheckMillis);
+            out.writeInt(usageTodayMillis);
+            out.writeInt(eventSeq);
+            out.writeInt(hiddenItems.cardinality());
+            hiddenItems.forEach(ord -> {
+                try {
+                    out.writeUTF(itemId.apply(ord));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeBoolean(calendar != null);
+            if (calendar != null) calendar.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Reads {@link #toBytes}; {@code ordinal} maps item ids back, dropping ids it returns -1 for. */
+    public static UserState fromBytes(byte[] bytes, ToIntFunction<String> ordinal) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int format = in.readByte();
+            if (format != FORMAT) throw new IOException("unknown user state format " + format);
+            UserState u = new UserState(in.readUTF(), in.readInt());
+            String zone = in.readUTF();
+            if (!zone.isEmpty()) u.zone = zone(zone);
+            u.moodStart = in.readByte();
+            u.moodCurrent = in.readByte();
+            u.sessionStartMillis = in.readLong();
+            u.lastInteractionMillis = in.readLong();
+            u.nextCheckMillis = in.readLong();
+            u.usageTodayMillis = in.readInt();
+            u.eventSeq = in.readInt();
+            OrdinalBitmap hidden = OrdinalBitmap.EMPTY;
+            for (int n = in.readInt(); n > 0; n--) {
+                int ord = ordinal.applyAsInt(in.readUTF());
+                if (ord >= 0) hidden = hidden.with(ord);
+            }
+            u.hiddenItems = hidden;
+            if (in.readBoolean()) u.calendar = CalendarStore.readFrom(in);
+            return u;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Shared ZoneId for an id, so users in one zone hold one instance; throws DateTimeException if unknown. */
+    public static ZoneId zone(String id) {
+        ZoneId zone = ZONES.get(id);
+        return zone != null ? zone : ZONES.computeIfAbsent(id, ZoneId::of);
+    }
+
+    /** For reads only; the shared empty store when nothing was recorded yet. */
+    public CalendarStore calendar() {
+        return calendar == null ? CalendarStore.EMPTY : calendar;
+    }
+
+    /** Calendar for updates, allocated on first use. */
+    public CalendarStore calendarForUpdate() {
+        if (calendar == null) calendar = new CalendarStore();
+        return calendar;
+    }
+
+    /**
+     * Approximate heap bytes owned by this user (64-bit JVM, compressed oops):
+     * this object, its id string, hidden set and calendar. Zones are shared.
+     */
+    public long estimatedBytes() {
+        long bytes = 80;                                    // header + fields above, padded
+        bytes += 24 + ((16 + userId.length() + 7) & ~7L);   // String + Latin-1 byte[]
+        bytes += hiddenItems.sizeInBytes();
+        if (calendar != null) bytes += calendar.estimatedBytes();
+        return bytes;
+    }
 }
@@ -0,0 +1,340 @@
+// src/main/java/com/moodrise/persistence/ColdUserStore.java
+package com.moodrise.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap tier for idle users: serialized states appended to a memory-mapped
+ * file under {@code <data dir>/users}, found through an open-addressing index
+ * of two longs per slot (id hash + file offset, about 24 heap bytes a user;
+ * the id itself is checked against the record). {@link #take} hands a state
+ * back and forgets it, so a user lives in exactly one tier. Space of taken
+ * records is reclaimed when the tier empties, or by {@link #compact} once it
+ * is mostly dead; compaction goes a bounded step at a time, so lookups wait
+ * for one step, never for a whole pass.
+ *
+ * <p>This is a cache for heap, not durable storage: the file is truncated on
+ * start.
+ */
+@Slf4j
+@Component
+public class ColdUserStore {
+
+    private static final long CHUNK_BYTES = 64L << 20;    // mapped a chunk at a time; records never span two
+    private static final long FREE = 0, TAKEN = -1;       // index slot markers; live slots hold offset + 1
+    private static final int STEP = 4096;                 // records moved, or index slots scanned, per lock hold
+    private static final int MAX_PASSES = 4;              // compaction passes chasing records appended meanwhile
+
+    @Value("${moodrise.data.dir:data}")
+    private String dataDir;
+
+    private Path file;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long end;                         // append position
+    private long liveBytes;                   // bytes of live records; the rest of [0, end) is dead
+    private int size, used;                   // live entries; live + TAKEN slots
+    private long version;                     // puts so far; a scan racing none of them saw every id
+    // compaction in progress: live offsets to move, in file order, and where the next one goes
+    private long[] moving;
+    private int moved, passes;
+    private long movedEnd, passEnd;
+    private long[] hashes = new long[1024];
+    private long[] slots = new long[1024];
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path dir = Files.createDirectories(Path.of(dataDir, "users"));
+        file = dir.resolve("cold.dat");
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /** Stores a user's state, replacing any earlier one. */
+    public synchronized void put(String userId, byte[] state) {
+        version++;
+        byte[] id = userId.getBytes(StandardCharsets.UTF_8);
+        long h = hash(id);
+        int free = -1;
+        for (int i = index(h); ; i = (i + 1) & (slots.length - 1)) {
+            long s = slots[i];
+            if (s == FREE) {
+                if (free < 0) free = i;
+                break;
+            }
+            if (s == TAKEN) {
+                if (free < 0) free = i;
+            } else if (hashes[i] == h && idMatches(s - 1, id)) {
+                slots[i] = append(id, state) + 1;
+                drop(s - 1);
+                return;
+            }
+        }
+        if (slots[free] == FREE) used++;
+        hashes[free] = h;
+        slots[free] = append(id, state) + 1;
+        size++;
+        if (used * 4L > slots.length * 3L) rehash();
+    }
+
+    /** Removes and returns a user's state, or null if the user is not here. */
+    public synchronized byte[] take(String userId) {
+        int i = find(userId);
+        if (i < 0) return null;
+        long at = slots[i] - 1;
+        byte[] state = state(at);
+        slots[i] = TAKEN;
+        size--;
+        drop(at);
+        return state;
+    }
+
+    /** A user's state without removing it, or null if the user is not here. */
+    public synchronized byte[] get(String userId) {
+        int i = find(userId);
+        return i < 0 ? null : state(slots[i] - 1);
+    }
+
+    public synchronized boolean contains(String userId) {
+        return find(userId) >= 0;
+    }
+
+    /**
+     * Ids of the users here, read a slice of the index per lock hold so lookups
+     * are not held up by the scan; {@code id} runs under the lock, keep it
+     * cheap. It may see users taken meanwhile, and misses ones put meanwhile:
+     * the ids are complete only if {@link #version} is the same before and after.
+     */
+    public void forEachId(Consumer<String> id) {
+        for (int from = 0; ; from += STEP) {
+            synchronized (this) {
+                if (from >= slots.length) return;
+                for (int i = from; i < Math.min(from + STEP, slots.length); i++) {
+                    long s = slots[i];
+                    if (s <= FREE) continue;
+                    MappedByteBuffer chunk = chunks.get((int) ((s - 1) / CHUNK_BYTES));
+                    int pos = (int) ((s - 1) % CHUNK_BYTES);
+                    byte[] b = new byte[chunk.getShort(pos + 4)];
+                    chunk.get(pos + 6, b);
+                    id.accept(new String(b, StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    /** Changes with every put, so a caller can tell whether a {@link #forEachId} scan raced one. */
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Bytes the file is using, live and not yet reclaimed. */
+    public synchronized long fileBytes() {
+        return end;
+    }
+
+    private int find(String userId) {
+        if (size == 0) return -1;
+        byte[] id = userId.getBytes(StandardCharsets.UTF_8);
+        long h = hash(id);
+        for (int i = index(h); slots[i] != FREE; i = (i + 1) & (slots.length - 1)) {
+            long s = slots[i];
+            if (s != TAKEN && hashes[i] == h && idMatches(s - 1, id)) return i;
+        }
+        return -1;
+    }
+
+    private byte[] state(long at) {
+        MappedByteBuffer chunk = chunks.get((int) (at / CHUNK_BYTES));
+        int pos = (int) (at % CHUNK_BYTES);
+        int start = pos + 6 + chunk.getShort(pos + 4);
+        byte[] state = new byte[pos + 4 + chunk.getInt(pos) - start];
+        chunk.get(start, state);
+        return state;
+    }
+
+    // record: [int length of the rest][short id length][id][state]
+    private long append(byte[] id, byte[] state) {
+        int total = 6 + id.length + state.length;
+        if (total > CHUNK_BYTES || id.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("user state too large: " + total + " bytes");
+        }
+        long at = reserve(total);
+        MappedByteBuffer chunk = chunk((int) (at / CHUNK_BYTES));
+        int pos = (int) (at % CHUNK_BYTES);
+        chunk.putInt(pos, total - 4);
+        chunk.putShort(pos + 4, (short) id.length);
+        chunk.put(pos + 6, id);
+        chunk.put(pos + 6 + id.length, state);
+        return at;
+    }
+
+    // position for the next record of total bytes; records never span two chunks
+    private long reserve(int total) {
+        long at = end;
+        if (at % CHUNK_BYTES + total > CHUNK_BYTES) at = (at / CHUNK_BYTES + 1) * CHUNK_BYTES;
+        end = at + total;
+        liveBytes += total;
+        return at;
+    }
+
+    private void drop(long at) {
+        liveBytes -= 4 + chunks.get((int) (at / CHUNK_BYTES)).getInt((int) (at % CHUNK_BYTES));
+        if (size == 0) {
+            // nothing live: start over at the front of the file
+            end = 0;
+            liveBytes = 0;
+            moving = null;
+        }
+    }
+
+    private boolean idMatches(long at, byte[] id) {
+        MappedByteBuffer chunk = chunks.get((int) (at / CHUNK_BYTES));
+        int pos = (int) (at % CHUNK_BYTES);
+        if (chunk.getShort(pos + 4) != id.length) return false;
+        for (int i = 0; i < id.length; i++) {
+            if (chunk.get(pos + 6 + i) != id[i]) return false;
+        }
+        return true;
+    }
+
+    private MappedByteBuffer chunk(int n) {
+        try {
+            while (chunks.size() <= n) {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunks.size() * CHUNK_BYTES, CHUNK_BYTES));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot grow " + file, e);
+        }
+        return chunks.get(n);
+    }
+
+    /**
+     * One step of compaction, when the file is mostly dead: slides up to STEP
+     * live records to the front, in file order, so at most one record is on
+     * heap. Taken in that order a record only ever moves toward the front
+     * (whatever precedes it shrinks), so no record is overwritten before it has
+     * been moved. Records appended meanwhile go past the old end; later passes
+     * move them too, and the file shrinks once a pass finishes with none new.
+     * Meant for a background thread; returns true while there is more to do.
+     */
+    public synchronized boolean compact() {
+        if (moving == null) {
+            long dead = end - liveBytes;
+            if (dead <= liveBytes || dead < CHUNK_BYTES) return false;
+            startPass(0);
+            movedEnd = 0;
+            passes = 0;
+            log.info("cold user tier compacting: {} users, {} of {} bytes dead", size, dead, end);
+        }
+        int budget = STEP;
+        for (;;) {
+            for (; moved < moving.length && budget > 0; moved++, budget--) move(moving[moved]);
+            if (moved < moving.length) return true;
+            if (end == passEnd) {
+                // nothing appended during the pass: everything live now sits before movedEnd
+                end = movedEnd;
+                moving = null;
+                log.info("cold user tier compacted to {} users, {} bytes", size, end);
+                return false;
+            }
+            if (++passes == MAX_PASSES) {
+                // appends keep outrunning the passes: the gap left waits for the next compaction
+                moving = null;
+                return false;
+            }
+            startPass(passEnd);
+            // a short tail appended meanwhile is finished under this hold, so nothing can append behind it
+            budget = Math.max(budget, moving.length <= STEP ? moving.length : 0);
+        }
+    }
+
+    private void move(long from) {
+        MappedByteBuffer src = chunks.get((int) (from / CHUNK_BYTES));
+        int pos = (int) (from % CHUNK_BYTES);
+        byte[] rec = new byte[4 + src.getInt(pos)];
+        src.get(pos, rec);
+        int slot = slotOf(rec, from);
+        if (slot < 0) return;                   // taken or replaced since the pass started
+        long to = movedEnd;
+        if (to % CHUNK_BYTES + rec.length > CHUNK_BYTES) to = (to / CHUNK_BYTES + 1) * CHUNK_BYTES;
+        movedEnd = to + rec.length;
+        if (to != from) chunks.get((int) (to / CHUNK_BYTES)).put((int) (to % CHUNK_BYTES), rec);
+        slots[slot] = to + 1;
+    }
+
+    // live offsets at or after from, sorted; the pass covers the file up to the current end
+    private void startPass(long from) {
+        long[] offsets = new long[size];
+        int n = 0;
+        for (long s : slots) if (s > FREE && s - 1 >= from) offsets[n++] = s - 1;
+        Arrays.sort(offsets, 0, n);
+        moving = Arrays.copyOf(offsets, n);
+        moved = 0;
+        passEnd = end;
+    }
+
+    // index slot of the live record at offset, found by the id hash stored in the record; -1 if it is not live
+    private int slotOf(byte[] rec, long at) {
+        int idLen = (rec[4] & 0xFF) << 8 | rec[5] & 0xFF;
+        long h = hash(rec, 6, idLen);
+        for (int i = index(h); slots[i] != FREE; i = (i + 1) & (slots.length - 1)) {
+            if (slots[i] == at + 1) return i;
+        }
+        return -1;
+    }
+
+    private void rehash() {
+        long[] oldHashes = hashes, oldSlots = slots;
+        int capacity = size * 2L > oldSlots.length ? oldSlots.length * 2 : oldSlots.length;
+        hashes = new long[capacity];
+        slots = new long[capacity];
+        for (int j = 0; j < oldSlots.length; j++) {
+            if (oldSlots[j] <= FREE) continue;
+            int i = index(oldHashes[j]);
+            while (slots[i] != FREE) i = (i + 1) & (capacity - 1);
+            hashes[i] = oldHashes[j];
+            slots[i] = oldSlots[j];
+        }
+        used = size;
+    }
+
+    private int index(long h) {
+        return (int) (h ^ (h >>> 32)) & (slots.length - 1);
+    }
+
+    private static long hash(byte[] id) {
+        return hash(id, 0, id.length);
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(byte[] b, int from, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < from + length; i++) h = (h ^ (b[i] & 0xFF)) * 0x100000001b3L;
+        return h;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        chunks.clear();
+        if (channel != null) channel.close();
+    }
+}
@@ -0,0 +1,125 @@
+// src/main/java/com/moodrise/persistence/FeedbackLog.java
+package com.moodrise.persistence;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Durable record of reinforcement deltas: an append-only group-commit log of
+ * (itemId, delta) plus a periodic snapshot of per-item totals. Restart maps the
+ * latest snapshot and replays only the segments written after it, so recovery
+ * is bounded by {@code snapshot-every} records however long the service ran.
+ */
+@Slf4j
+@Component
+public class FeedbackLog {
+
+    private static final int SNAPSHOT_MAGIC = 0x4D525331;    // "MRS1"
+
+    @Value("${moodrise.feedback-log.enabled:true}")
+    private boolean enabled;
+    @Value("${moodrise.data.dir:data}")
+    private String dataDir;
+    @Value("${moodrise.feedback-log.flush-millis:10}")
+    private long flushMillis;
+    @Value("${moodrise.feedback-log.snapshot-every:200000}")
+    private long snapshotEvery;
+
+    // durable totals per item id; only touched by recover() and then the writer thread
+    private final Map<String, Long> totals = new HashMap<>();
+    private long sinceSnapshot;
+    private SnapshotFiles snapshots;
+    private volatile GroupCommitLog commitLog;
+
+    /**
+     * Restores totals from disk, handing each item's recovered score to
+     * {@code restore}, then opens the log for appends. Call once, before any append.
+     */
+    public synchronized void recover(ObjLongConsumer<String> restore) throws IOException {
+        if (!enabled || commitLog != null) return;
+        long started = System.nanoTime();
+        Path dir = Files.createDirectories(Path.of(dataDir, "feedback"));
+        snapshots = new SnapshotFiles(dir, "scores", SNAPSHOT_MAGIC);
+        SegmentedLog segments = new SegmentedLog(dir, "feedback", 64L << 20);
+
+        long fromSegment = loadLatestSnapshot();
+        long snapshotItems = totals.size();
+        long replayed = GroupCommitLog.replay(segments, fromSegment, rec -> {
+            String id = readId(rec);
+            totals.merge(id, (long) rec.getInt(), Long::sum);
+        });
+        totals.forEach(restore::accept);
+
+        // fold the replayed tail into a fresh snapshot so the next start skips it
+        if (replayed > 0 || fromSegment == 0) writeSnapshot(segments.currentId());
+        segments.deleteBefore(segments.currentId());
+        commitLog = new GroupCommitLog(segments, flushMillis, "feedback-log", this::committed);
+        log.info("feedback recovered in {} ms: {} items from snapshot, {} records replayed",
+                (System.nanoTime() - started) / 1_000_000, snapshotItems, replayed);
+    }
+
+    /** Queues one delta; durable within about flush-millis, never blocks the caller on I/O. */
+    public void append(String itemId, int delta) {
+        GroupCommitLog l = commitLog;
+        if (l == null) return;
+        byte[] id = itemId.getBytes(StandardCharsets.UTF_8);
+        l.append(ByteBuffer.allocate(2 + id.length + 4).putShort((short) id.length).put(id).putInt(delta).array());
+    }
+
+    private void committed(List<byte[]> records) throws IOException {
+        for (byte[] r : records) {
+            ByteBuffer rec = ByteBuffer.wrap(r);
+            String id = readId(rec);
+            totals.merge(id, (long) rec.getInt(), Long::sum);
+        }
+        sinceSnapshot += records.size();
+        if (sinceSnapshot < snapshotEvery) return;
+        SegmentedLog segments = commitLog.segments();
+        long next = segments.roll();
+        writeSnapshot(next);
+        segments.deleteBefore(next);
+    }
+
+    private static String readId(ByteBuffer rec) {
+        byte[] id = new byte[rec.getShort()];
+        rec.get(id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /** Loads the newest snapshot into {@link #totals}; returns the segment replay starts from. */
+    private long loadLatestSnapshot() throws IOException {
+        long best = snapshots.latest();
+        if (best > 0) snapshots.read(best, buf -> totals.put(readId(buf), buf.getLong()));
+        return best;
+    }
+
+    private void writeSnapshot(long segment) throws IOException {
+        snapshots.write(segment, out -> {
+            for (Map.Entry<String, Long> e : totals.entrySet()) {
+                byte[] id = e.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(id.length);
+                out.write(id);
+                out.writeLong(e.getValue());
+            }
+            return totals.size();
+        });
+        sinceSnapshot = 0;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        GroupCommitLog l = commitLog;
+        if (l != null) l.close();
+    }
+}
@@ -0,0 +1,120 @@
+// src/main/java/com/moodrise/persistence/GroupCommitLog.java
+package com.moodrise.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Group commit on top of a {@link SegmentedLog}. Request threads only enqueue an
+ * encoded record; one writer thread wakes every {@code flushMillis}, writes
+ * everything queued as a single frame and fsyncs once for the whole group.
+ * The listener runs on the writer thread after each durable group, which is a
+ * consistent point to take snapshots.
+ */
+@Slf4j
+public final class GroupCommitLog implements Closeable {
+
+    public interface Listener {
+        void committed(List<byte[]> records) throws IOException;
+    }
+
+    private static final int MAX_GROUP = 64 * 1024;   // records per frame
+
+    private final SegmentedLog segments;
+    private final Listener listener;
+    private final long flushNanos;
+    private final ConcurrentLinkedQueue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public GroupCommitLog(SegmentedLog segments, long flushMillis, String threadName, Listener listener) {
+        this.segments = segments;
+        this.listener = listener;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.writer = new Thread(this::run, threadName);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Queues a record; it becomes durable with the next group, within about flushMillis. */
+    public void append(byte[] record) {
+        pending.add(record);
+    }
+
+    public SegmentedLog segments() {
+        return segments;
+    }
+
+    /** Records lost to write errors since start. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /** Replays frames written by this class, one record at a time. */
+    public static long replay(SegmentedLog segments, long fromSegment, Consumer<ByteBuffer> records) throws IOException {
+        long[] count = { 0 };
+        segments.replay(fromSegment, frame -> {
+            int n = frame.getInt();
+            for (int i = 0; i < n; i++) {
+                int len = frame.getInt();
+                records.accept(frame.slice(frame.position(), len));
+                frame.position(frame.position() + len);
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private void run() {
+        List<byte[]> group = new ArrayList<>();
+        while (running || !pending.isEmpty()) {
+            if (pending.isEmpty()) LockSupport.parkNanos(flushNanos);
+            byte[] r;
+            while (group.size() < MAX_GROUP && (r = pending.poll()) != null) group.add(r);
+            if (group.isEmpty()) continue;
+            try {
+                int bytes = 4;
+                for (byte[] rec : group) bytes += 4 + rec.length;
+                ByteBuffer frame = ByteBuffer.allocate(bytes).putInt(group.size());
+                for (byte[] rec : group) frame.putInt(rec.length).put(rec);
+                segments.write(frame.flip());
+                segments.sync();
+            } catch (IOException | RuntimeException e) {
+                dropped.addAndGet(group.size());
+                log.error("group commit failed, {} records not persisted", group.size(), e);
+                group.clear();
+                continue;
+            }
+            try {
+                listener.committed(group);
+            } catch (IOException | RuntimeException e) {
+                log.error("post-commit hook failed", e);
+            }
+            group.clear();
+        }
+    }
+
+    /** Flushes what is queued, then stops the writer. */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segments.close();
+    }
+}
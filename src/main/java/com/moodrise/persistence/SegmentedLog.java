@@ -0,0 +1,137 @@
+// src/main/java/com/moodrise/persistence/SegmentedLog.java
+package com.moodrise.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log split into numbered segment files ({@code <prefix>-<id>.log}).
+ * Data goes in frames of {@code [length][crc32c][payload]}; a frame that is short
+ * or fails its checksum is the torn tail of a crash and ends replay of that
+ * segment. Each process start writes to a fresh segment, so old ones are only read.
+ */
+public final class SegmentedLog implements Closeable {
+
+    private static final int HEADER = 8;
+
+    private final Path dir;
+    private final String prefix;
+    private final long segmentBytes;
+    private final Pattern name;
+
+    private FileChannel current;
+    private long currentId;
+    private long currentSize;
+
+    public SegmentedLog(Path dir, String prefix, long segmentBytes) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.prefix = prefix;
+        this.segmentBytes = segmentBytes;
+        this.name = Pattern.compile(Pattern.quote(prefix) + "-(\\d+)\\.log");
+        List<Long> ids = segmentIds();
+        open(ids.isEmpty() ? 1 : ids.get(ids.size() - 1) + 1);
+    }
+
+    /** Ids of all segments on disk, oldest first (includes the one being written). */
+    public List<Long> segmentIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                Matcher m = name.matcher(p.getFileName().toString());
+                if (m.matches()) ids.add(Long.parseLong(m.group(1)));
+            });
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    public long currentId() {
+        return currentId;
+    }
+
+    /** Writes one frame; not durable until {@link #sync()}. Rolls to a new segment when full. */
+    public void write(ByteBuffer payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(payload.remaining()).putInt((int) crc.getValue()).flip();
+        long n = header.remaining() + payload.remaining();
+        ByteBuffer[] frame = { header, payload };
+        while (frame[1].hasRemaining()) current.write(frame);
+        currentSize += n;
+        if (currentSize >= segmentBytes) roll();
+    }
+
+    public void sync() throws IOException {
+        current.force(false);
+    }
+
+    /** Closes the current segment and starts the next one; returns the new segment id. */
+    public long roll() throws IOException {
+        current.force(false);
+        current.close();
+        open(currentId + 1);
+        return currentId;
+    }
+
+    /** Deletes segments older than {@code id}. */
+    public void deleteBefore(long id) throws IOException {
+        for (long old : segmentIds()) if (old < id) Files.deleteIfExists(segment(old));
+    }
+
+    /**
+     * Feeds every intact frame of the closed segments with id >= {@code fromId}
+     * to {@code frames}, oldest first.
+     *
+     * @return number of frames replayed
+     */
+    public long replay(long fromId, Consumer<ByteBuffer> frames) throws IOException {
+        long count = 0;
+        for (long id : segmentIds()) {
+            if (id < fromId || id >= currentId) continue;
+            try (FileChannel ch = FileChannel.open(segment(id), StandardOpenOption.READ)) {
+                if (ch.size() == 0) continue;
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                while (buf.remaining() >= HEADER) {
+                    int len = buf.getInt();
+                    int sum = buf.getInt();
+                    if (len < 0 || len > buf.remaining()) break;
+                    ByteBuffer payload = buf.slice(buf.position(), len);
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != sum) break;
+                    frames.accept(payload);
+                    buf.position(buf.position() + len);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void open(long id) throws IOException {
+        current = FileChannel.open(segment(id), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        currentId = id;
+        currentSize = 0;
+    }
+
+    private Path segment(long id) {
+        return dir.resolve(String.format("%s-%010d.log", prefix, id));
+    }
+
+    @Override
+    public void close() throws IOException {
+        current.force(false);
+        current.close();
+    }
+}
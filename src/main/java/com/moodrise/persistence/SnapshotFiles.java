@@ -0,0 +1,94 @@
+// src/main/java/com/moodrise/persistence/SnapshotFiles.java
+package com.moodrise.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots kept beside a {@link SegmentedLog}, one file per snapshot named
+ * {@code <prefix>-<segment>.snap} after the first segment it does not cover.
+ * A file is {@code [magic][long count]} and then count records in the caller's
+ * format. Each is streamed to a temporary file and renamed into place, so a
+ * crash leaves the previous snapshot intact.
+ */
+final class SnapshotFiles {
+
+    /** Writes the records of a snapshot; returns how many it wrote. */
+    interface Writer {
+        long write(DataOutputStream out) throws IOException;
+    }
+
+    /** Reads one record, leaving the buffer after it. */
+    interface Reader {
+        void read(ByteBuffer record) throws IOException;
+    }
+
+    private final Path dir;
+    private final String prefix;
+    private final int magic;
+    private final Pattern name;
+
+    SnapshotFiles(Path dir, String prefix, int magic) {
+        this.dir = dir;
+        this.prefix = prefix;
+        this.magic = magic;
+        this.name = Pattern.compile(Pattern.quote(prefix) + "-(\\d+)\\.snap");
+    }
+
+    /** Segment of the newest snapshot, or 0 if there is none. */
+    long latest() throws IOException {
+        long best = 0;
+        for (long id : ids()) best = Math.max(best, id);
+        return best;
+    }
+
+    /** Reads the snapshot for {@code segment}, one {@code reader} call per record; returns the count. */
+    long read(long segment, Reader reader) throws IOException {
+        try (FileChannel ch = FileChannel.open(path(segment), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != magic) throw new IOException("not a " + prefix + " snapshot: " + path(segment));
+            long n = buf.getLong();
+            for (long i = 0; i < n; i++) reader.read(buf);
+            return n;
+        }
+    }
+
+    /** Writes the snapshot for {@code segment} and then deletes the older ones. */
+    void write(long segment, Writer writer) throws IOException {
+        Path tmp = dir.resolve(prefix + ".snap.tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(magic);
+            out.writeLong(0);                 // count, patched below
+            long count = writer.write(out);
+            out.flush();
+            file.getChannel().write(ByteBuffer.allocate(8).putLong(0, count), 4);
+            file.getChannel().force(true);
+        }
+        Files.move(tmp, path(segment), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long id : ids()) if (id < segment) Files.deleteIfExists(path(id));
+    }
+
+    private List<Long> ids() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Matcher m = name.matcher(p.getFileName().toString());
+                if (m.matches()) ids.add(Long.parseLong(m.group(1)));
+            }
+        }
+        return ids;
+    }
+
+    private Path path(long segment) {
+        return dir.resolve(String.format("%s-%010d.snap", prefix, segment));
+    }
+}
@@ -0,0 +1,111 @@
+// src/main/java/com/moodrise/persistence/UserEvent.java
+package com.moodrise.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One mutating user operation as logged by {@link UserEventLog}. {@code seq}
+ * counts the user's events, so replay can skip what a snapshot already holds.
+ * Only the fields of the event's type are stored:
+ * START/END carry a mood, CHECK a mood and the delay to the next check,
+ * HIDE an item id, ZONE a zone id, INTERACT nothing. IMPORT carries a whole serialized state
+ * handed over by another node; RELEASE drops a user handed to another node.
+ */
+public record UserEvent(Type type, String userId, int seq, long ts, int mood, int nextCheckSec, String itemId, String zone, byte[] state) {
+
+    public enum Type { START, CHECK, INTERACT, HIDE, END, IMPORT, RELEASE, ZONE }
+
+    private static final Type[] TYPES = Type.values();
+    private static final int MAX_NAME_BYTES = 0xFFFF;      // ids and zones are stored with unsigned short lengths
+
+    public static UserEvent start(String userId, int seq, long ts, int mood) {
+        return new UserEvent(Type.START, userId, seq, ts, mood, 0, null, null, null);
+    }
+
+    public static UserEvent check(String userId, int seq, long ts, int mood, int nextCheckSec) {
+        return new UserEvent(Type.CHECK, userId, seq, ts, mood, nextCheckSec, null, null, null);
+    }
+
+    public static UserEvent interact(String userId, int seq, long ts) {
+        return new UserEvent(Type.INTERACT, userId, seq, ts, 0, 0, null, null, null);
+    }
+
+    public static UserEvent hide(String userId, int seq, long ts, String itemId) {
+        return new UserEvent(Type.HIDE, userId, seq, ts, 0, 0, itemId, null, null);
+    }
+
+    public static UserEvent end(String userId, int seq, long ts, int mood) {
+        return new UserEvent(Type.END, userId, seq, ts, mood, 0, null, null, null);
+    }
+
+    public static UserEvent imported(String userId, int seq, long ts, byte[] state) {
+        return new UserEvent(Type.IMPORT, userId, seq, ts, 0, 0, null, null, state);
+    }
+
+    public static UserEvent released(String userId, long ts) {
+        return new UserEvent(Type.RELEASE, userId, 0, ts, 0, 0, null, null, null);
+    }
+
+    public static UserEvent zone(String userId, int seq, long ts, String zone) {
+        return new UserEvent(Type.ZONE, userId, seq, ts, 0, 0, null, zone, null);
+    }
+
+    // [type][u16 id len][id][int seq][long ts] then mood / mood + short delay / u16 item or zone len + id / int len + state
+    byte[] encode() {
+        byte[] id = name(userId);
+        String text = type == Type.ZONE ? zone : itemId;
+        byte[] name = text == null ? null : name(text);
+        int extra = switch (type) {
+            case START, END -> 1;
+            case CHECK -> 3;
+            case HIDE, ZONE -> 2 + name.length;
+            case IMPORT -> 4 + state.length;
+            case INTERACT, RELEASE -> 0;
+        };
+        ByteBuffer buf = ByteBuffer.allocate(1 + 2 + id.length + 4 + 8 + extra)
+                .put((byte) type.ordinal()).putShort((short) id.length).put(id).putInt(seq).putLong(ts);
+        switch (type) {
+            case START, END -> buf.put((byte) mood);
+            case CHECK -> buf.put((byte) mood).putShort((short) nextCheckSec);
+            case HIDE, ZONE -> buf.putShort((short) name.length).put(name);
+            case IMPORT -> buf.putInt(state.length).put(state);
+            case INTERACT, RELEASE -> { }
+        }
+        return buf.array();
+    }
+
+    static UserEvent decode(ByteBuffer buf) {
+        Type type = TYPES[buf.get()];
+        String userId = string(buf);
+        int seq = buf.getInt();
+        long ts = buf.getLong();
+        return switch (type) {
+            case START -> start(userId, seq, ts, buf.get());
+            case END -> end(userId, seq, ts, buf.get());
+            case CHECK -> check(userId, seq, ts, buf.get(), buf.getShort());
+            case HIDE -> hide(userId, seq, ts, string(buf));
+            case ZONE -> zone(userId, seq, ts, string(buf));
+            case INTERACT -> interact(userId, seq, ts);
+            case IMPORT -> {
+                byte[] state = new byte[buf.getInt()];
+                buf.get(state);
+                yield imported(userId, seq, ts, state);
+            }
+            case RELEASE -> released(userId, ts);
+        };
+    }
+
+    // a longer name would wrap its length and corrupt the log for every later read
+    private static byte[] name(String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length > MAX_NAME_BYTES) throw new IllegalArgumentException("name of " + b.length + " bytes cannot be logged");
+        return b;
+    }
+
+    private static String string(ByteBuffer buf) {
+        byte[] b = new byte[buf.getShort() & 0xFFFF];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
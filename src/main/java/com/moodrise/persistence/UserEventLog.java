@@ -0,0 +1,205 @@
+// src/main/java/com/moodrise/persistence/UserEventLog.java
+package com.moodrise.persistence;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Durable record of user operations, split by user id into partitions. Each
+ * partition is its own group-commit log under {@code <data dir>/users/log/p<n>}
+ * with its own writer thread. Every {@code snapshot-every} events a partition
+ * rolls its log and snapshots the current state of its users; restart loads
+ * each partition's latest snapshot and replays the events after it, all
+ * partitions in parallel.
+ *
+ * <p>A snapshot is taken while requests keep running, so it may already hold
+ * some events logged after the roll; replay skips those by the user's event
+ * sequence.
+ */
+@Slf4j
+@Component
+public class UserEventLog {
+
+    private static final int SNAPSHOT_MAGIC = 0x4D525553;    // "MRUS"
+
+    /** Supplies the serialized states of one partition's users, for snapshots. */
+    public interface Source {
+        void forEachUser(int partition, Consumer<byte[]> state);
+    }
+
+    @Value("${moodrise.user-log.enabled:true}")
+    private boolean enabled;
+    @Value("${moodrise.data.dir:data}")
+    private String dataDir;
+    @Value("${moodrise.user-log.partitions:8}")
+    private int partitions;
+    @Value("${moodrise.user-log.flush-millis:10}")
+    private long flushMillis;
+    @Value("${moodrise.user-log.snapshot-every:1000000}")
+    private long snapshotEvery;
+
+    private Source source;
+    private volatile Partition[] parts;
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "user-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public int partitions() {
+        return partitions;
+    }
+
+    public int partition(String userId) {
+        int h = userId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions);
+    }
+
+    /**
+     * Rebuilds users from disk, one partition per thread: {@code restore} gets
+     * each snapshotted state, then {@code replay} each later event in log order.
+     * Both are called concurrently for different partitions, never for the same
+     * user. Opens the logs for appends afterwards; call once, before any append.
+     */
+    public synchronized void recover(Source source, Consumer<byte[]> restore, Consumer<UserEvent> replay) throws IOException {
+        if (!enabled || parts != null) return;
+        this.source = source;
+        long started = System.nanoTime();
+        Partition[] opened = new Partition[partitions];
+        AtomicLong restored = new AtomicLong(), replayed = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(partitions, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                int n = p;
+                done.add(pool.submit(() -> {
+                    opened[n] = new Partition(n);
+                    opened[n].recover(restore, replay, restored, replayed);
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+            // fold replayed tails into fresh snapshots once every partition is in, so they
+            // read users while nothing moves between tiers and the next start skips the tails
+            done.clear();
+            for (Partition p : opened) done.add(pool.submit(() -> {
+                p.fold();
+                return null;
+            }));
+            for (Future<?> f : done) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("user recovery interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("user recovery failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        for (Partition p : opened) p.start();
+        parts = opened;
+        log.info("users recovered in {} ms over {} partitions: {} from snapshots, {} events replayed",
+                (System.nanoTime() - started) / 1_000_000, partitions, restored.get(), replayed.get());
+    }
+
+    /** Hands the event to its user's partition, durable with that partition's next group commit. */
+    public void append(UserEvent event) {
+        Partition[] p = parts;
+        if (p == null) return;
+        p[partition(event.userId())].commitLog.append(event.encode());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        Partition[] p = parts;
+        if (p == null) return;
+        for (Partition part : p) part.commitLog.close();
+    }
+
+    private final class Partition {
+        final int index;
+        final Path dir;
+        final SegmentedLog segments;
+        final SnapshotFiles snapshots;
+        final AtomicBoolean snapshotting = new AtomicBoolean();
+        GroupCommitLog commitLog;
+        long sinceSnapshot;       // writer thread only
+        long replayedTail;        // events replayed after the snapshot on recovery
+
+        Partition(int index) throws IOException {
+            this.index = index;
+            this.dir = Files.createDirectories(Path.of(dataDir, "users", "log", "p" + index));
+            this.segments = new SegmentedLog(dir, "users", 64L << 20);
+            this.snapshots = new SnapshotFiles(dir, "users", SNAPSHOT_MAGIC);
+        }
+
+        void recover(Consumer<byte[]> restore, Consumer<UserEvent> replay, AtomicLong restored, AtomicLong replayed) throws IOException {
+            long fromSegment = snapshots.latest();
+            if (fromSegment > 0) restored.addAndGet(snapshots.read(fromSegment, buf -> {
+                byte[] state = new byte[buf.getInt()];
+                buf.get(state);
+                restore.accept(state);
+            }));
+            replayedTail = GroupCommitLog.replay(segments, fromSegment, rec -> replay.accept(UserEvent.decode(rec)));
+            replayed.addAndGet(replayedTail);
+        }
+
+        void fold() throws IOException {
+            if (replayedTail > 0) writeSnapshot(segments.currentId());
+            segments.deleteBefore(segments.currentId());
+        }
+
+        void start() {
+            commitLog = new GroupCommitLog(segments, flushMillis, "user-log-" + index, this::committed);
+        }
+
+        // writer thread: roll here so everything before the snapshot sits in older segments
+        private void committed(List<byte[]> records) throws IOException {
+            sinceSnapshot += records.size();
+            if (sinceSnapshot < snapshotEvery || !snapshotting.compareAndSet(false, true)) return;
+            sinceSnapshot = 0;
+            long next = segments.roll();
+            snapshotter.execute(() -> {
+                try {
+                    writeSnapshot(next);
+                    segments.deleteBefore(next);
+                } catch (IOException | RuntimeException e) {
+                    log.error("user snapshot of partition {} failed", index, e);
+                } finally {
+                    snapshotting.set(false);
+                }
+            });
+        }
+
+        private void writeSnapshot(long segment) throws IOException {
+            snapshots.write(segment, out -> {
+                long[] count = { 0 };
+                try {
+                    source.forEachUser(index, state -> {
+                        try {
+                            out.writeInt(state.length);
+                            out.write(state);
+                            count[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                return count[0];
+            });
+        }
+    }
+}
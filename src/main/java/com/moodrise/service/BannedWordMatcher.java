@@ -0,0 +1,162 @@
+// src/main/java/com/moodrise/service/BannedWordMatcher.java
+package com.moodrise.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * Aho-Corasick automaton over a fixed word list. Matching is case-insensitive,
+ * whole-word only (same boundaries as regex {@code \b}) and runs in one pass,
+ * so cost depends on the text length, not on how many words are banned.
+ */
+final class BannedWordMatcher {
+
+    private final CharTable children = new CharTable();
+    private int[] fail = new int[16];
+    private int[] wordLen = new int[16];   // length of the word ending at this state, 0 if none
+    private int[] dictLink = new int[16];  // nearest state on the fail chain that ends a word, -1 if none
+    private int[] firstChild = new int[16]; // build-time tree walk: first child, next sibling, edge char
+    private int[] sibling = new int[16];
+    private char[] label = new char[16];
+    private int states = 1;                // state 0 is the root
+
+    BannedWordMatcher(Collection<String> words) {
+        for (String w : words) insert(w);
+        link();
+    }
+
+    /** Replaces every banned whole word with {@code mask}; returns {@code text} itself when clean. */
+    String mask(String text, String mask) {
+        StringBuilder out = null;
+        int copied = 0;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = children.get(state, c)) < 0 && state != 0) state = fail[state];
+            state = Math.max(next, 0);
+
+            int end = i + 1;
+            if (end < text.length() && isWordChar(text.charAt(end))) continue;
+            // longest word first, then shorter suffixes via the dictionary links
+            for (int s = wordLen[state] > 0 ? state : dictLink[state]; s >= 0; s = dictLink[s]) {
+                int start = end - wordLen[s];
+                if (start < copied) continue;
+                if (start > 0 && isWordChar(text.charAt(start - 1))) continue;
+                if (out == null) out = new StringBuilder(text.length());
+                out.append(text, copied, start).append(mask);
+                copied = end;
+                break;
+            }
+        }
+        if (out == null) return text;
+        return out.append(text, copied, text.length()).toString();
+    }
+
+    // folds char by char exactly as mask() does: String.toLowerCase is locale-bound
+    // (Turkish "I" -> "ı") and may change the length, which would skew wordLen
+    private void insert(String word) {
+        if (word.isEmpty()) return;
+        int state = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = Character.toLowerCase(word.charAt(i));
+            int next = children.get(state, c);
+            if (next < 0) {
+                next = newState();
+                children.put(state, c, next);
+                label[next] = c;
+                sibling[next] = firstChild[state];
+                firstChild[state] = next;
+            }
+            state = next;
+        }
+        wordLen[state] = word.length();
+    }
+
+    private int newState() {
+        if (states == fail.length) {
+            fail = Arrays.copyOf(fail, states * 2);
+            wordLen = Arrays.copyOf(wordLen, states * 2);
+            dictLink = Arrays.copyOf(dictLink, states * 2);
+            firstChild = Arrays.copyOf(firstChild, states * 2);
+            sibling = Arrays.copyOf(sibling, states * 2);
+            label = Arrays.copyOf(label, states * 2);
+        }
+        return states++;
+    }
+
+    // breadth-first so every fail target is resolved before its dependants
+    private void link() {
+        Arrays.fill(dictLink, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child = firstChild[0]; child != 0; child = sibling[child]) queue.add(child);
+        while (!queue.isEmpty()) {
+            int parent = queue.poll();
+            for (int child = firstChild[parent]; child != 0; child = sibling[child]) {
+                int f = fail[parent];
+                int next;
+                while ((next = children.get(f, label[child])) < 0 && f != 0) f = fail[f];
+                fail[child] = (next >= 0 && next != child) ? next : 0;
+                dictLink[child] = wordLen[fail[child]] > 0 ? fail[child] : dictLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /** Open-addressing (state, char) -> child table; no boxing on the match path. */
+    private static final class CharTable {
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int size;
+
+        int get(int state, char c) {
+            long key = key(state, c);
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return -1;
+        }
+
+        void put(int state, char c, int child) {
+            if ((size + 1) * 2 > keys.length) grow();
+            long key = key(state, c);
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = child;
+            size++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    long k = oldKeys[i];
+                    put((int) (k >>> 16) - 1, (char) k, oldValues[i]);
+                }
+            }
+        }
+
+        // state is shifted by one so that no real key is 0 (the empty-slot marker)
+        private static long key(int state, char c) {
+            return ((long) (state + 1) << 16) | c;
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+}
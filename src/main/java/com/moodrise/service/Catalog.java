@@ -0,0 +1,27 @@
+// src/main/java/com/moodrise/service/Catalog.java
+package com.moodrise.service;
+
+import com.moodrise.model.ContentItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable generation of the content catalog. ContentService publishes a
+ * whole new instance on reload, so readers never see a half-loaded catalog.
+ * Items never change within a generation, so each one's JSON is encoded once
+ * at load ({@code json}, by ordinal) and feed responses copy those bytes.
+ */
+record Catalog(long version, List<ContentItem> items, Map<String, Integer> ordinals, RankedIndex ranked, byte[][] json) {
+
+    /** Score ordinal of an item in this catalog, or -1 if it is not part of it. */
+    int ordinal(String id) {
+        Integer ord = id == null ? null : ordinals.get(id);
+        return ord == null ? -1 : ord;
+    }
+
+    /** The item's JSON as the API writes it; the item must be part of this catalog. */
+    byte[] json(String id) {
+        return json[ordinals.get(id)];
+    }
+}
@@ -1,65 +1,192 @@
 // src/main/java/com/moodrise/service/ContentService.java
 package com.moodrise.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrise.dto.FeedPage;
+import com.moodrise.dto.FeedbackEvent;
 import com.moodrise.model.*;
+import com.moodrise.persistence.FeedbackLog;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ContentService {
 
     private final ProfanityGuard profanityGuard;
+    private final ObjectMapper mapper;
+    private final FeedbackLog feedbackLog;
 
-    private final List<ContentItem> all = new ArrayList<>();
-    private final Map<String, Integer> reinforcement = new ConcurrentHashMap<>();
+    @Value("${moodrise.catalog.path:}")
+    private String catalogPath;
+
+    private final ScoreBoard scores = new ScoreBoard(this::journal);
+    private final FeedCursors cursors = new FeedCursors();
+
+    // readers take whatever snapshot is current; reloads publish a new one in a single swap
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Long>> pendingReload = new AtomicReference<>();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-reload");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService cursorSweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "feed-cursor-sweep");
+        t.setDaemon(true);
+        return t;
+    });
 
     @PostConstruct
-    public void seed() {
-        // Keep it short for demo; add more items as you wish
-        all.add(ContentItem.builder().id("edu_01").category(Category.Educate).type(ContentType.text)
-                .text("Tip: Try 4-7-8 breathing to calm quickly.").score(0).build());
-        all.add(ContentItem.builder().id("edu_02").category(Category.Educate).type(ContentType.article)
-                .url("https://www.sleepfoundation.org/how-sleep-works/why-do-we-need-sleep")
-                .text("Article: Why consistent sleep improves mood & focus.").score(0).build());
-        all.add(ContentItem.builder().id("edu_03").category(Category.Educate).type(ContentType.text)
-                .text("Study hack: 25-min focus + 5-min stretch.").score(0).build());
-
-        all.add(ContentItem.builder().id("laugh_01").category(Category.Laugh).type(ContentType.image)
-                .url("https://i.imgur.com/8Q3Zt.jpg").text("Otter encouragement 🦦").score(0).build());
-        all.add(ContentItem.builder().id("laugh_02").category(Category.Laugh).type(ContentType.video)
-                .url("https://example.com/funny-dog-10s.mp4").text("10s dog zoomies 🐶").score(0).build());
-        all.add(ContentItem.builder().id("laugh_03").category(Category.Laugh).type(ContentType.text)
-                .text("Joke: Why did the web dev stay calm? Because he had async support 😌").score(0).build());
-
-        all.add(ContentItem.builder().id("mot_01").category(Category.Motivate).type(ContentType.text)
-                .text("Micro-win: sip water now 💧").score(0).build());
-        all.add(ContentItem.builder().id("mot_02").category(Category.Motivate).type(ContentType.text)
-                .text("Two minutes of stretching resets your posture.").score(0).build());
-        all.add(ContentItem.builder().id("mot_03").category(Category.Motivate).type(ContentType.text)
-                .text("A 7-minute walk beats a 7-minute scroll.").score(0).build());
-
-        all.forEach(i -> i.setText(profanityGuard.cleanse(i.getText())));
+    public void seed() throws IOException {
+        // scores first, so the first index is built on recovered reinforcement
+        feedbackLog.recover(scores::restore);
+        catalog.set(load(1));
+        long every = FeedCursors.TTL_MILLIS / 10;
+        cursorSweeper.scheduleWithFixedDelay(cursors::sweep, every, every, TimeUnit.MILLISECONDS);
     }
 
-    public void applyFeedback(String itemId, Reaction reaction) {
-        reinforcement.compute(itemId, (k, v) -> {
-            int base = (v == null ? 0 : v);
-            if (reaction == Reaction.smile) return base + 1;
-            if (reaction == Reaction.sad)   return Math.max(-3, base - 1);
-            return base;
+    @PreDestroy
+    public void stopSweeper() {
+        cursorSweeper.shutdownNow();
+    }
+
+    /**
+     * Re-reads the catalog file in the background and swaps it in when complete.
+     * Calls made while a reload is running share that reload.
+     */
+    public CompletableFuture<Long> reloadAsync() {
+        CompletableFuture<Long> mine = new CompletableFuture<>();
+        CompletableFuture<Long> running = pendingReload.compareAndExchange(null, mine);
+        if (running != null) return running;
+        reloader.execute(() -> {
+            try {
+                Catalog next = load(catalog.get().version() + 1);
+                catalog.set(next);
+                // pick up feedback that raced with building the new index
+                next.ranked().refreshAll();
+                log.info("catalog v{} loaded: {} items", next.version(), next.items().size());
+                mine.complete(next.version());
+            } catch (Exception e) {
+                log.error("catalog reload failed; keeping v{}", catalog.get().version(), e);
+                mine.completeExceptionally(e);
+            } finally {
+                pendingReload.set(null);
+            }
         });
+        return mine;
+    }
+
+    /** Stable ordinal of an item in the current catalog, or -1 if it is not in it. */
+    public int ordinal(String itemId) {
+        return catalog.get().ordinal(itemId);
+    }
+
+    /** Item id for an ordinal handed out by {@link #ordinal}. */
+    public String itemId(int ordinal) {
+        return scores.id(ordinal);
+    }
+
+    public long catalogVersion() {
+        return catalog.get().version();
+    }
+
+    private Catalog load(long version) throws IOException {
+        List<ContentItem> items = new ArrayList<>();
+        Map<String, Integer> ordinals = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(open(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                ContentItem item = ingest(mapper.readValue(line, ContentItem.class));
+                if (item.getId() == null || item.getCategory() == null)
+                    throw new IllegalArgumentException("catalog line " + lineNo + ": id and category are required");
+                if (ordinals.containsKey(item.getId()))
+                    throw new IllegalArgumentException("catalog line " + lineNo + ": duplicate id " + item.getId());
+                ordinals.put(item.getId(), scores.ordinal(item.getId()));
+                items.add(item);
+            }
+        }
+        List<ContentItem> frozen = List.copyOf(items);
+        int[] byPosition = frozen.stream().mapToInt(i -> ordinals.get(i.getId())).toArray();
+        byte[][] json = new byte[Arrays.stream(byPosition).max().orElse(-1) + 1][];
+        for (int i = 0; i < byPosition.length; i++) json[byPosition[i]] = mapper.writeValueAsBytes(frozen.get(i));
+        return new Catalog(version, frozen, Map.copyOf(ordinals), new RankedIndex(frozen, byPosition, scores), json);
+    }
+
+    private InputStream open() throws IOException {
+        if (catalogPath == null || catalogPath.isBlank()) return new ClassPathResource("catalog.jsonl").getInputStream();
+        return Files.newInputStream(Path.of(catalogPath));
+    }
+
+    // items are cleaned once here and never modified afterwards
+    private ContentItem ingest(ContentItem raw) {
+        return raw.toBuilder().text(profanityGuard.cleanse(raw.getText())).build();
+    }
+
+    public void applyFeedback(String itemId, Reaction reaction) {
+        int delta = deltaOf(reaction);
+        if (delta == 0) return;
+        Catalog c = catalog.get();
+        int ord = c.ordinal(itemId);
+        if (ord >= 0) apply(c, ord, delta);
+    }
+
+    /**
+     * Applies a burst of reactions, folded into one delta per item first so a
+     * popular item costs one counter update however often it appears.
+     *
+     * @return number of items whose score changed; reactions that cancel out
+     *         on an item leave it untouched and uncounted
+     */
+    public int applyFeedback(List<FeedbackEvent> events) {
+        Catalog c = catalog.get();
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (FeedbackEvent e : events) {
+            int delta = deltaOf(e.getReaction());
+            int ord = c.ordinal(e.getItemId());
+            if (delta != 0 && ord >= 0) deltas.merge(ord, delta, Integer::sum);
+        }
+        int touched = 0;
+        for (Map.Entry<Integer, Integer> d : deltas.entrySet()) {
+            if (d.getValue() == 0) continue;
+            apply(c, d.getKey(), d.getValue());
+            touched++;
+        }
+        return touched;
+    }
+
+    private void journal(String itemId, int delta) {
+        feedbackLog.append(itemId, delta);
+    }
+
+    private static int deltaOf(Reaction reaction) {
+        return reaction == Reaction.smile ? 1 : (reaction == Reaction.sad ? -1 : 0);
     }
 
-    private int byReinforcement(ContentItem a, ContentItem b) {
-        int sa = reinforcement.getOrDefault(a.getId(), a.getScore());
-        int sb = reinforcement.getOrDefault(b.getId(), b.getScore());
-        return Integer.compare(sb, sa);
+    private void apply(Catalog c, int ord, int delta) {
+        // the -3 floor is applied when the index merges this item, not here
+        scores.add(ord, delta);
+        c.ranked().markDirty(ord);
+        Catalog now = catalog.get();
+        if (now != c) now.ranked().markDirty(ord);
     }
 
     private Category backupFor(int mood, Category tab) {
@@ -73,27 +200,75 @@ public class ContentService {
         return prefs.get(0);
     }
 
-    public List<ContentItem> curated(int mood, Category tab, int limit, Set<String> hiddenIds) {
+    public List<ContentItem> curated(int mood, Category tab, int limit, OrdinalBitmap hidden) {
+        return assemble(mood, tab, limit, hidden, null, false).getItems();
+    }
+
+    /**
+     * One page of the feed. With a cursor from the previous page, each source
+     * resumes after the last item it served and the 2:1 pattern continues where
+     * it stopped. Items already served in the scroll are not repeated even if
+     * their scores changed since. An item that climbs above the cursor mid-scroll
+     * is not pulled back in; the next fresh feed shows it. A cursor whose scroll
+     * expired is refused with IllegalArgumentException.
+     */
+    public FeedPage page(int mood, Category tab, int limit, OrdinalBitmap hidden, String cursor) {
+        return assemble(mood, tab, limit, hidden, cursor, true);
+    }
+
+    /**
+     * Changes whenever {@link #page} with these arguments could return other
+     * items for the same hidden set: a catalog reload, or feedback that reorders
+     * the tab or its backup category. Read it before the page, never after.
+     */
+    public String feedVersion(int mood, Category tab, String cursor) {
+        Catalog c = catalog.get();
+        RankedIndex ranked = c.ranked();
+        ranked.merge();
+        FeedCursor from = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+        Category backup = from != null ? from.backup() : backupFor(mood, tab);
+        return c.version() + "." + ranked.version(tab) + "." + ranked.version(backup);
+    }
+
+    private FeedPage assemble(int mood, Category tab, int limit, OrdinalBitmap hidden, String cursor, boolean paged) {
         if (limit <= 0) limit = 10;
-        Category backup = backupFor(mood, tab);
+        Catalog c = catalog.get();
+        RankedIndex ranked = c.ranked();
+        ranked.merge();
 
-        List<ContentItem> primary = all.stream()
-                .filter(i -> i.getCategory() == tab && !hiddenIds.contains(i.getId()))
-                .sorted(this::byReinforcement)
-                .collect(Collectors.toList());
+        FeedCursor from = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+        if (from != null && from.tab() != tab) throw new IllegalArgumentException("cursor belongs to tab " + from.tab());
+        // a scroll keeps its backup category even if the mood changes mid-way
+        Category backup = from != null ? from.backup() : backupFor(mood, tab);
+        int page = from != null ? from.page() + 1 : 1;
+        FeedCursors.Served followed = from != null ? cursors.follow(from.id()) : null;
+        IntPredicate seen = followed == null ? ord -> false : ord -> followed.before(ord, page);
 
-        List<ContentItem> cross = all.stream()
-                .filter(i -> i.getCategory() == backup && !hiddenIds.contains(i.getId()))
-                .sorted(this::byReinforcement)
-                .collect(Collectors.toList());
+        // seq is only meaningful within one catalog version; after a reload resume by score alone
+        boolean sameCatalog = from != null && from.catalogVersion() == c.version();
+        RankedIndex.Walk primary = ranked.walk(tab, hidden, resumeAt(from == null ? null : from.primary(), sameCatalog), seen);
+        RankedIndex.Walk cross = ranked.walk(backup, hidden, resumeAt(from == null ? null : from.backupMark(), sameCatalog), seen);
+        FeedInterleaver feed = new FeedInterleaver(primary, cross, from == null ? 0 : from.slot());
 
+        // not presized: limit is the caller's bound, not what the feed holds
         List<ContentItem> out = new ArrayList<>();
-        while (out.size() < limit && (!primary.isEmpty() || !cross.isEmpty())) {
-            if (!primary.isEmpty()) out.add(primary.remove(0));
-            if (out.size() < limit && !primary.isEmpty()) out.add(primary.remove(0));
-            if (out.size() < limit && !cross.isEmpty()) out.add(cross.remove(0));
+        List<byte[]> json = new ArrayList<>();
+        while (out.size() < limit && feed.hasNext()) {
+            ContentItem item = feed.next();
+            out.add(item);
+            json.add(c.json(item.getId()));
         }
-        out.forEach(i -> i.setText(profanityGuard.cleanse(i.getText())));
-        return out;
+        if (!paged || !feed.hasNext()) return new FeedPage(out, json, null);
+
+        // the scroll is recorded from its first page, so later pages skip whatever went out here
+        FeedCursors.Served served = followed != null ? followed : cursors.open();
+        for (ContentItem item : out) served.record(c.ordinal(item.getId()), page);
+        String next = new FeedCursor(served.id, page, c.version(), tab, backup, feed.slot(), primary.mark(), cross.mark()).encode();
+        return new FeedPage(out, json, next);
+    }
+
+    private static RankedIndex.Mark resumeAt(RankedIndex.Mark mark, boolean sameCatalog) {
+        if (mark == null) return RankedIndex.Mark.START;
+        return sameCatalog ? mark : new RankedIndex.Mark(mark.score(), -1);
     }
 }
@@ -0,0 +1,108 @@
+// src/main/java/com/moodrise/service/DayClock.java
+package com.moodrise.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time source for user operations. Keeps, per zone in use, the current epoch
+ * day and the millis where it starts and ends, so "what day is it for this
+ * user" is a range check instead of a zone conversion. A tick moves each zone
+ * to its next day once midnight passes there; a time outside the cached day
+ * (replayed events, or a request just before the tick) is converted directly.
+ */
+@Component
+public class DayClock {
+
+    private record Day(int epochDay, long startMillis, long endMillis) {
+        boolean contains(long millis) {
+            return millis >= startMillis && millis < endMillis;
+        }
+    }
+
+    private final Clock clock;
+    private final ZoneId serverZone;
+    private final Map<ZoneId, Day> days = new ConcurrentHashMap<>();
+
+    @Value("${moodrise.clock.tick:1s}")
+    private Duration tick = Duration.ofSeconds(1);
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "day-clock");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public DayClock() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /** A clock over {@code clock}; its zone is the one for users without a zone of their own. */
+    public DayClock(Clock clock) {
+        this.clock = clock;
+        this.serverZone = clock.getZone();
+    }
+
+    @PostConstruct
+    public void start() {
+        long every = tick.toMillis();
+        ticker.scheduleWithFixedDelay(this::refresh, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    public long millis() {
+        return clock.millis();
+    }
+
+    /** Today's epoch day in {@code zone}; null means the server zone. */
+    public int today(ZoneId zone) {
+        return epochDay(zone, millis());
+    }
+
+    /** Epoch day of {@code millis} in {@code zone}; null means the server zone. */
+    public int epochDay(ZoneId zone, long millis) {
+        return day(zone, millis).epochDay;
+    }
+
+    /** Millis at which the day holding {@code millis} ends in {@code zone}; null means the server zone. */
+    public long dayEnd(ZoneId zone, long millis) {
+        return day(zone, millis).endMillis;
+    }
+
+    private Day day(ZoneId zone, long millis) {
+        ZoneId z = zone == null ? serverZone : zone;
+        Day cached = days.get(z);
+        if (cached != null && cached.contains(millis)) return cached;
+        Day day = dayAt(z, millis);
+        // only ever move a zone forward; old timestamps must not evict today
+        if (cached == null || day.startMillis > cached.startMillis) days.put(z, day);
+        return day;
+    }
+
+    void refresh() {
+        long now = millis();
+        days.replaceAll((zone, day) -> now >= day.endMillis ? dayAt(zone, now) : day);
+    }
+
+    private static Day dayAt(ZoneId zone, long millis) {
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new Day((int) date.toEpochDay(), start, end);
+    }
+}
@@ -0,0 +1,43 @@
+// src/main/java/com/moodrise/service/FeedCursor.java
+package com.moodrise.service;
+
+import com.moodrise.model.Category;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Continuation token for /api/content. Clients treat it as opaque; it carries
+ * the catalog version, the tab/backup pair, where each source stopped and the
+ * id of the server-side record of what was already served.
+ */
+record FeedCursor(long id, int page, long catalogVersion, Category tab, Category backup, int slot,
+                  RankedIndex.Mark primary, RankedIndex.Mark backupMark) {
+
+    private static final byte FORMAT = 1;
+    private static final int BYTES = 1 + 8 + 4 + 8 + 3 + 4 * 4;
+
+    String encode() {
+        ByteBuffer b = ByteBuffer.allocate(BYTES)
+                .put(FORMAT).putLong(id).putInt(page).putLong(catalogVersion)
+                .put((byte) tab.ordinal()).put((byte) backup.ordinal()).put((byte) slot)
+                .putInt(primary.score()).putInt(primary.seq())
+                .putInt(backupMark.score()).putInt(backupMark.seq());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(b.array());
+    }
+
+    /** Parses a token; throws IllegalArgumentException for anything malformed. */
+    static FeedCursor decode(String token) {
+        ByteBuffer b = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+        if (b.remaining() != BYTES || b.get() != FORMAT) throw new IllegalArgumentException("bad cursor");
+        long id = b.getLong();
+        int page = b.getInt();
+        long version = b.getLong();
+        Category[] cats = Category.values();
+        int tab = b.get(), backup = b.get(), slot = b.get();
+        if (tab < 0 || tab >= cats.length || backup < 0 || backup >= cats.length || page < 1)
+            throw new IllegalArgumentException("bad cursor");
+        return new FeedCursor(id, page, version, cats[tab], cats[backup], slot,
+                new RankedIndex.Mark(b.getInt(), b.getInt()), new RankedIndex.Mark(b.getInt(), b.getInt()));
+    }
+}
@@ -0,0 +1,99 @@
+// src/main/java/com/moodrise/service/FeedCursors.java
+package com.moodrise.service;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server side of feed cursors: for each open scroll, the page on which every
+ * item it served appeared, from the first page on. A page then skips items
+ * served on earlier pages even if their score moved them below the cursor, and
+ * a retried page comes back the same. Scrolls are kept in follow order, so the
+ * least recently followed goes first when over budget, and idle ones expire in
+ * {@link #sweep}; a cursor for a dropped scroll is refused, not restarted.
+ */
+final class FeedCursors {
+
+    static final long TTL_MILLIS = 30L * 60L * 1000L;           // 30 minutes idle
+    private static final int MAX_OPEN = 100_000;
+    private static final int SWEEP_CHUNK = 4096;                 // expired scrolls dropped per lock hold
+
+    static final class Served {
+        final long id;
+        private final Map<Integer, Integer> firstPage = new ConcurrentHashMap<>();
+        private long touchedMillis;                              // guarded by the open map
+
+        private Served(long id) {
+            this.id = id;
+        }
+
+        /** True if {@code ordinal} went out on a page before {@code page}. */
+        boolean before(int ordinal, int page) {
+            Integer first = firstPage.get(ordinal);
+            return first != null && first < page;
+        }
+
+        void record(int ordinal, int page) {
+            firstPage.putIfAbsent(ordinal, page);
+        }
+    }
+
+    // access order: iteration starts at the scroll followed longest ago
+    private final LinkedHashMap<Long, Served> open = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Served> eldest) {
+            return size() > MAX_OPEN;
+        }
+    };
+    private final SecureRandom ids = new SecureRandom();
+
+    /** State for a new scroll, minted with its first cursor. */
+    Served open() {
+        long now = System.currentTimeMillis();
+        synchronized (open) {
+            long id;
+            do id = ids.nextLong(); while (open.containsKey(id));
+            Served s = new Served(id);
+            s.touchedMillis = now;
+            open.put(id, s);
+            return s;
+        }
+    }
+
+    /** State for a scroll being followed; throws IllegalArgumentException once it expired or was dropped. */
+    Served follow(long id) {
+        long now = System.currentTimeMillis();
+        synchronized (open) {
+            Served s = open.get(id);
+            if (s == null) throw new IllegalArgumentException("cursor expired");
+            s.touchedMillis = now;
+            return s;
+        }
+    }
+
+    /** Drops scrolls idle for longer than the TTL; run off the request path. */
+    void sweep() {
+        long cutoff = System.currentTimeMillis() - TTL_MILLIS;
+        boolean more = true;
+        while (more) {
+            synchronized (open) {
+                Iterator<Served> it = open.values().iterator();
+                int dropped = 0;
+                while ((more = it.hasNext()) && dropped < SWEEP_CHUNK) {
+                    if (it.next().touchedMillis >= cutoff) return;
+                    it.remove();
+                    dropped++;
+                }
+            }
+        }
+    }
+
+    int size() {
+        synchronized (open) {
+            return open.size();
+        }
+    }
+}
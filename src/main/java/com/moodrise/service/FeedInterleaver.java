@@ -0,0 +1,51 @@
+// src/main/java/com/moodrise/service/FeedInterleaver.java
+package com.moodrise.service;
+
+import com.moodrise.model.ContentItem;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Mixes the tab's items with the mood backup in a 2:1 pattern (primary, primary,
+ * backup), pulling from each source only as items are consumed. When one source
+ * runs dry the other fills the remaining slots.
+ */
+final class FeedInterleaver implements Iterator<ContentItem> {
+
+    private static final int ROUND = 3; // slots 0,1 = primary, slot 2 = backup
+
+    private final Iterator<ContentItem> primary;
+    private final Iterator<ContentItem> backup;
+    private int slot;
+
+    FeedInterleaver(Iterator<ContentItem> primary, Iterator<ContentItem> backup) {
+        this(primary, backup, 0);
+    }
+
+    /** Resumes the pattern at {@code slot}, as returned by {@link #slot()} on the previous page. */
+    FeedInterleaver(Iterator<ContentItem> primary, Iterator<ContentItem> backup, int slot) {
+        this.primary = primary;
+        this.backup = backup;
+        this.slot = Math.floorMod(slot, ROUND);
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return primary.hasNext() || backup.hasNext();
+    }
+
+    @Override
+    public ContentItem next() {
+        for (int tries = 0; tries < ROUND; tries++) {
+            Iterator<ContentItem> source = slot < 2 ? primary : backup;
+            slot = (slot + 1) % ROUND;
+            if (source.hasNext()) return source.next();
+        }
+        throw new NoSuchElementException();
+    }
+}
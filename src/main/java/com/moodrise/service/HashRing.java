@@ -0,0 +1,63 @@
+// src/main/java/com/moodrise/service/HashRing.java
+package com.moodrise.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring of node base URLs. Each node takes
+ * {@link #VNODES} points, so adding a node moves about 1/n of the users, taken
+ * evenly from every other node.
+ */
+final class HashRing {
+
+    static final int VNODES = 128;
+
+    private final List<String> nodes;
+    private final long[] points;      // sorted
+    private final String[] owners;    // owner of each point
+
+    HashRing(List<String> nodes) {
+        if (nodes.isEmpty()) throw new IllegalArgumentException("ring needs at least one node");
+        this.nodes = List.copyOf(nodes);
+        int n = this.nodes.size() * VNODES;
+        long[] keyed = new long[n];
+        String[] byIndex = new String[n];
+        for (int i = 0; i < n; i++) {
+            keyed[i] = hash(this.nodes.get(i / VNODES) + "#" + (i % VNODES));
+            byIndex[i] = this.nodes.get(i / VNODES);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        points = new long[n];
+        owners = new String[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = keyed[order[i]];
+            owners[i] = byIndex[order[i]];
+        }
+    }
+
+    List<String> nodes() {
+        return nodes;
+    }
+
+    /** Node owning a user: the first point at or after the id's hash, wrapping around. */
+    String owner(String userId) {
+        int i = Arrays.binarySearch(points, hash(userId));
+        if (i < 0) i = -i - 1;
+        return owners[i == points.length ? 0 : i];
+    }
+
+    // FNV-1a then the murmur3 finalizer, so similar ids and node names spread out
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -1,17 +1,31 @@
 // src/main/java/com/moodrise/service/NotificationsService.java
 package com.moodrise.service;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@RequiredArgsConstructor
 public class NotificationsService {
 
+    /** A tip due {@code in} from now. */
+    public record Reminder(Duration in, String text) { }
+
+    private final TimerWheel timers;
+    private final PushChannel push;
+    private final DayClock clock;
+
     private final Random rand = new Random();
+    // reminders waiting to be pushed, per user with an open stream
+    private final Map<String, List<TimerWheel.Timeout>> scheduled = new ConcurrentHashMap<>();
 
     private static final String[] GENERIC_TIPS = new String[] {
             "Mini-tip: stand up, roll your shoulders, breathe in 4-7-8.",
@@ -38,16 +52,48 @@ public class NotificationsService {
             "Share a kind word; helping others lifts you too."
     };
 
+    public List<Reminder> todaySchedule(Integer latestMood) {
+        // simple schedule buckets; front end can decide when to surface
+        return List.of(
+                new Reminder(Duration.ofMinutes(30), pickByMood(latestMood)),
+                new Reminder(Duration.ofHours(2), GENERIC_TIPS[rand.nextInt(GENERIC_TIPS.length)]),
+                new Reminder(Duration.ofHours(4), GENERIC_TIPS[rand.nextInt(GENERIC_TIPS.length)]));
+    }
+
     public List<String> todayReminders(Integer latestMood) {
         List<String> out = new ArrayList<>();
-        // simple schedule buckets; front end can decide when to surface
         LocalTime now = LocalTime.now();
-        out.add("[" + now.plusMinutes(30) + "] " + pickByMood(latestMood));
-        out.add("[" + now.plusHours(2) + "] " + GENERIC_TIPS[rand.nextInt(GENERIC_TIPS.length)]);
-        out.add("[" + now.plusHours(4) + "] " + GENERIC_TIPS[rand.nextInt(GENERIC_TIPS.length)]);
+        for (Reminder r : todaySchedule(latestMood)) out.add("[" + now.plus(r.in()) + "] " + r.text());
         return out;
     }
 
+    /**
+     * Pushes today's reminders to the user as {@code reminder} events when they
+     * come due, replacing any scheduled before. Once the user has no open
+     * stream, the remaining ones are dropped.
+     */
+    public void scheduleReminders(String userId, Integer latestMood) {
+        long now = clock.millis();
+        List<TimerWheel.Timeout> timeouts = new ArrayList<>();
+        for (Reminder r : todaySchedule(latestMood)) {
+            timeouts.add(timers.schedule(now + r.in().toMillis(), t -> deliver(userId, r.text(), t)));
+        }
+        List<TimerWheel.Timeout> old = scheduled.put(userId, timeouts);
+        if (old != null) old.forEach(TimerWheel.Timeout::cancel);
+    }
+
+    // wheel thread
+    private void deliver(String userId, String text, TimerWheel.Timeout timeout) {
+        List<TimerWheel.Timeout> pending = scheduled.get(userId);
+        if (pending == null || !pending.contains(timeout)) return;
+        boolean last = pending.get(pending.size() - 1) == timeout;
+        if (!push.push(userId, "reminder", Map.of("text", text))) {
+            pending.forEach(TimerWheel.Timeout::cancel);
+            last = true;
+        }
+        if (last) scheduled.remove(userId, pending);
+    }
+
     private String pickByMood(Integer mood) {
         if (mood == null) return GENERIC_TIPS[rand.nextInt(GENERIC_TIPS.length)];
         if (mood <= 2) return MOOD_LOW_TIPS[rand.nextInt(MOOD_LOW_TIPS.length)];
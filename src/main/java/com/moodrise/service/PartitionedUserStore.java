@@ -0,0 +1,403 @@
+// src/main/java/com/moodrise/service/PartitionedUserStore.java
+package com.moodrise.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrise.dto.*;
+import com.moodrise.model.DaySummary;
+import com.moodrise.model.OrdinalBitmap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Users spread over the nodes in moodrise.cluster.nodes by a consistent-hash
+ * ring: users this node owns run on the local {@link UserService}, the rest
+ * are forwarded once to their owner's {@code /cluster/users} endpoints.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnExpression("!'${moodrise.cluster.self:}'.isEmpty()")
+@RequiredArgsConstructor
+public class PartitionedUserStore implements UserStore {
+
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    static final String INTERNAL_USERS = "/cluster/users/";
+
+    private static final TypeReference<OkResponse> ACK = new TypeReference<>() { };
+    private static final TypeReference<Map<LocalDate, DaySummary>> CALENDAR = new TypeReference<>() { };
+    private static final TypeReference<List<String>> IDS = new TypeReference<>() { };
+
+    private final UserService local;
+    private final ContentService content;
+    private final ObjectMapper mapper;
+
+    @Value("${moodrise.cluster.self}")
+    private String self;
+    @Value("${moodrise.cluster.nodes:}")
+    private List<String> configuredNodes;
+    @Value("${moodrise.cluster.allowed-nodes:}")
+    private List<String> allowedNodes;
+    @Value("${moodrise.cluster.secret:}")
+    private String secret;
+    @Value("${moodrise.cluster.timeout:5s}")
+    private Duration timeout;
+    @Value("${moodrise.cluster.handoff-window:10m}")
+    private Duration handoffWindow;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ExecutorService migrator = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "user-migrate");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<String> allowed = new HashSet<>();
+    private volatile HashRing ring;
+    private Set<String> draining = Set.of();   // old holders still pushing users away; guarded by this
+
+    @PostConstruct
+    public void join() {
+        if (secret.isBlank()) throw new IllegalStateException("moodrise.cluster.secret must be set on every node");
+        // a node missing from the list is joining: it owns no users until a list naming it arrives
+        List<String> nodes = configuredNodes.isEmpty() ? List.of(self) : configuredNodes;
+        allowed.addAll(allowedNodes.isEmpty() ? nodes : allowedNodes);
+        allowed.add(self);
+        ring = new HashRing(nodes);
+        log.info("user store partitioned over {} as {}{}", ring.nodes(), self, nodes.contains(self) ? "" : " (joining)");
+    }
+
+    @PreDestroy
+    public void stop() {
+        migrator.shutdownNow();
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public List<String> nodes() {
+        return ring.nodes();
+    }
+
+    /** Switches to a new node list and starts moving users to their new owners. */
+    public synchronized void setNodes(List<String> nodes) {
+        checkAllowed(nodes);
+        HashRing previous = ring;
+        ring = new HashRing(nodes);
+        Set<String> holders = ConcurrentHashMap.newKeySet();
+        holders.addAll(previous.nodes());
+        holders.remove(self);
+        draining = holders;
+        long until = System.nanoTime() + handoffWindow.toNanos();
+        local.setPreviousOwner(holders.isEmpty() ? null : userId -> {
+            String holder = previous.owner(userId);
+            if (!holders.contains(holder)) return null;
+            if (System.nanoTime() - until > 0) {
+                drained(holders, null);
+                return null;
+            }
+            return pull(holder, userId);
+        });
+        migrator.execute(this::migrate);
+    }
+
+    /** A node has pushed away all users it no longer owns: stop asking it for them. */
+    public synchronized void drained(String node) {
+        drained(draining, node);
+    }
+
+    // null node: the handoff window is over, whoever is left
+    private synchronized void drained(Set<String> holders, String node) {
+        if (holders != draining) return;     // a later node list took over
+        if (node == null) holders.clear();
+        else holders.remove(node);
+        if (holders.isEmpty()) {
+            local.setPreviousOwner(null);
+            log.info("handoff to {} done", self);
+        }
+    }
+
+    /** Sends a node list to every node in it and every node leaving, this one included. */
+    public void broadcast(List<String> nodes) {
+        checkAllowed(nodes);
+        Set<String> targets = new LinkedHashSet<>(nodes);
+        targets.addAll(ring.nodes());
+        setNodes(nodes);
+        for (String node : targets) {
+            if (node.equals(self)) continue;
+            try {
+                send(node, "/cluster/nodes?propagate=false", "application/json",
+                        mapper.writeValueAsBytes(Map.of("nodes", nodes)));
+            } catch (IOException | RuntimeException e) {
+                log.error("could not send node list to {}", node, e);
+            }
+        }
+    }
+
+    // user state and the secret only ever go to known nodes, whoever sends the list
+    private void checkAllowed(List<String> nodes) {
+        for (String node : nodes) {
+            if (!allowed.contains(node)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "node " + node + " not in moodrise.cluster.allowed-nodes");
+            }
+        }
+    }
+
+    // pushes every user this node no longer owns to its owner. Users the owner did not
+    // acknowledge stay here, still answering its pulls, and are tried again until the
+    // handoff window ends
+    private void migrate() {
+        HashRing current = ring;
+        long until = System.nanoTime() + handoffWindow.toNanos();
+        List<String> pending = new ArrayList<>();
+        for (String userId : local.userIds()) {
+            if (!current.owner(userId).equals(self)) pending.add(userId);
+        }
+        int moved = 0;
+        while (true) {
+            List<String> kept = new ArrayList<>();
+            for (String userId : pending) {
+                if (current != ring) return;      // a later node list took over
+                if (handOver(current.owner(userId), userId)) moved++;
+                else kept.add(userId);
+            }
+            pending = kept;
+            if (pending.isEmpty() || System.nanoTime() - until > 0) break;
+            try {
+                Thread.sleep(timeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("rebalance moved {} users off {}", moved, self);
+        if (!pending.isEmpty()) {
+            log.error("{} users could not be handed over from {}; kept here", pending.size(), self);
+            return;
+        }
+        for (String node : current.nodes()) {
+            if (node.equals(self)) continue;
+            try {
+                send(node, "/cluster/drained?node=" + URLEncoder.encode(self, StandardCharsets.UTF_8), "application/json", new byte[0]);
+            } catch (IOException | RuntimeException e) {
+                log.warn("could not tell {} that {} is drained: {}", node, self, e.toString());
+            }
+        }
+    }
+
+    // whether the user left this node. An adopt that failed or timed out may still have
+    // landed: the owner keeps whichever copy has seen more events, so sending again is safe
+    private boolean handOver(String owner, String userId) {
+        byte[] state = local.handOff(userId);
+        if (state == null) return true;
+        try {
+            send(owner, INTERNAL_USERS + "adopt", "application/octet-stream", state);
+        } catch (IOException | RuntimeException e) {
+            log.warn("could not hand user {} to {}: {}", userId, owner, e.toString());
+            return false;
+        }
+        return local.release(userId, state);
+    }
+
+    // a holder that is down or gone has nothing to hand over: the user starts afresh here
+    private byte[] pull(String holder, String userId) {
+        try {
+            HttpResponse<byte[]> res = post(holder, INTERNAL_USERS + encode(userId) + "/release", "application/json", new byte[0]);
+            return res.statusCode() == 200 ? res.body() : null;
+        } catch (IOException e) {
+            log.warn("could not pull user {} from {}: {}", userId, holder, e.toString());
+            return null;
+        }
+    }
+
+    // ---- UserStore ----
+
+    @Override
+    public void startSession(String userId, int moodStart, String zone) {
+        String owner = owner(userId);
+        if (owner.equals(self)) {
+            local.startSession(userId, moodStart, zone);
+            return;
+        }
+        Map<String, String> args = new HashMap<>();
+        args.put("mood", String.valueOf(moodStart));
+        if (zone != null) args.put("zone", zone);
+        call(owner, userId, "start", args, ACK);
+    }
+
+    @Override
+    public void moodCheck(String userId, int mood) {
+        String owner = owner(userId);
+        if (owner.equals(self)) local.moodCheck(userId, mood);
+        else call(owner, userId, "check", Map.of("mood", String.valueOf(mood)), ACK);
+    }
+
+    @Override
+    public SessionSummary endSession(String userId, int moodEnd) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.endSession(userId, moodEnd);
+        return call(owner, userId, "end", Map.of("mood", String.valueOf(moodEnd)), new TypeReference<>() { });
+    }
+
+    @Override
+    public void recordInteraction(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) local.recordInteraction(userId);
+        else call(owner, userId, "interaction", Map.of(), ACK);
+    }
+
+    @Override
+    public void hide(String userId, String itemId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) local.hide(userId, itemId);
+        else call(owner, userId, "hide", Map.of("itemId", itemId), ACK);
+    }
+
+    @Override
+    public LimitStatus limitStatus(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.limitStatus(userId);
+        return call(owner, userId, "limit", Map.of(), new TypeReference<>() { });
+    }
+
+    @Override
+    public Instant nextCheckTs(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.nextCheckTs(userId);
+        return call(owner, userId, "next-check", Map.of(), new TypeReference<NextCheck>() { }).nextCheckTs();
+    }
+
+    @Override
+    public Integer latestMood(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.latestMood(userId);
+        return call(owner, userId, "mood", Map.of(), new TypeReference<LatestMood>() { }).mood();
+    }
+
+    @Override
+    public OrdinalBitmap hidden(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.hidden(userId);
+        return ordinals(call(owner, userId, "hidden", Map.of(), IDS));
+    }
+
+    // ordinals are per node: hidden items travel as item ids
+    private OrdinalBitmap ordinals(List<String> itemIds) {
+        OrdinalBitmap hidden = OrdinalBitmap.EMPTY;
+        for (String itemId : itemIds) {
+            int ordinal = content.ordinal(itemId);
+            if (ordinal >= 0) hidden = hidden.with(ordinal);
+        }
+        return hidden;
+    }
+
+    @Override
+    public Map<LocalDate, DaySummary> calendar(String userId, LocalDate from, LocalDate to) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.calendar(userId, from, to);
+        Map<String, String> args = new HashMap<>();
+        if (from != null) args.put("from", from.toString());
+        if (to != null) args.put("to", to.toString());
+        return call(owner, userId, "calendar", args, CALENDAR);
+    }
+
+    @Override
+    public Streaks streaks(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.streaks(userId);
+        return call(owner, userId, "streaks", Map.of(), new TypeReference<>() { });
+    }
+
+    @Override
+    public UserSummary summary(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.summary(userId);
+        UserSummary summary = call(owner, userId, "summary", Map.of(), new TypeReference<>() { });
+        summary.setHidden(ordinals(summary.getHiddenItemIds()));
+        summary.setHiddenItemIds(null);
+        return summary;
+    }
+
+    @Override
+    public UserVersions versions(String userId) {
+        String owner = owner(userId);
+        if (owner.equals(self)) return local.versions(userId);
+        return call(owner, userId, "versions", Map.of(), new TypeReference<>() { });
+    }
+
+    @Override
+    public String remoteOwner(String userId) {
+        String owner = owner(userId);
+        return owner.equals(self) ? null : owner;
+    }
+
+    // checked here too, so an oversized id gets its 400 from this node instead of a 502 from the owner
+    private String owner(String userId) {
+        return ring.owner(UserStore.checkUserId(userId));
+    }
+
+    // ---- HTTP ----
+
+    private <T> T call(String owner, String userId, String op, Map<String, String> args, TypeReference<T> type) {
+        try {
+            byte[] body = send(owner, INTERNAL_USERS + encode(userId) + "/" + op, "application/json", mapper.writeValueAsBytes(args));
+            return mapper.readValue(body, type);
+        } catch (IOException e) {
+            throw unavailable(owner, e);
+        }
+    }
+
+    private byte[] send(String node, String path, String contentType, byte[] body) throws IOException {
+        HttpResponse<byte[]> res = post(node, path, contentType, body);
+        if (res.statusCode() / 100 != 2) throw new IOException(node + path + " answered " + res.statusCode());
+        return res.body();
+    }
+
+    private HttpResponse<byte[]> post(String node, String path, String contentType, byte[] body) throws IOException {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(node + path))
+                .timeout(timeout)
+                .header("Content-Type", contentType)
+                .header(SECRET_HEADER, secret)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        try {
+            return http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted calling " + node, e);
+        }
+    }
+
+    private static String encode(String userId) {
+        return URLEncoder.encode(userId, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static ResponseStatusException unavailable(String node, IOException e) {
+        log.warn("node {} unavailable: {}", node, e.toString());
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "user owner " + node + " unavailable");
+    }
+}
@@ -11,12 +11,13 @@ public class ProfanityGuard {
             "damn","hell","shit","fuck","bitch","asshole"
     );
 
+    private static final String MASK = "•••";
+
+    // built once; one pass per call however long the list gets
+    private final BannedWordMatcher matcher = new BannedWordMatcher(banned);
+
     public String cleanse(String text) {
         if (text == null) return null;
-        String out = text;
-        for (String bad : banned) {
-            out = out.replaceAll("(?i)\\b" + bad + "\\b", "•••");
-        }
-        return out;
+        return matcher.mask(text, MASK);
     }
 }
@@ -0,0 +1,12 @@
+// src/main/java/com/moodrise/service/PushChannel.java
+package com.moodrise.service;
+
+/**
+ * Server-to-client events for a user, so clients need not poll for them.
+ * Delivery is best effort: a user with no open stream on this node misses the event.
+ */
+public interface PushChannel {
+
+    /** Sends {@code data} as event {@code event} to the user's open streams; false if there are none. */
+    boolean push(String userId, String event, Object data);
+}
@@ -0,0 +1,253 @@
+// src/main/java/com/moodrise/service/RankedIndex.java
+package com.moodrise.service;
+
+import com.moodrise.model.Category;
+import com.moodrise.model.ContentItem;
+import com.moodrise.model.OrdinalBitmap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Per-category view of the catalog kept sorted by reinforcement (highest first).
+ * Feedback only flags an item as dirty; readers merge the flagged items into the
+ * order at most every {@link #MERGE_EVERY_NANOS}, so bursts on one item cost a
+ * single move. The top of each category is cached as an immutable slice tagged
+ * with that category's version, which only a merge that moved something bumps.
+ */
+final class RankedIndex {
+
+    private static final long MERGE_EVERY_NANOS = 50_000_000L;   // 50 ms
+    private static final int SLICE = 64;                          // cached top entries per category
+
+    private record Entry(ContentItem item, int ordinal, int score, int seq) {}
+
+    private record Slice(long version, List<Entry> top, boolean complete) {}
+
+    // score desc, then catalog order so equal scores stay stable
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry e) -> -e.score())
+            .thenComparingInt(Entry::seq);
+
+    private final Map<Category, NavigableSet<Entry>> byCategory = new EnumMap<>(Category.class);
+    private final Entry[] slots;                // by ordinal; null for ordinals not in this catalog
+    private final ScoreBoard scores;
+
+    // two-level dirty bitmap: one bit per ordinal, one summary bit per word
+    private final AtomicLongArray dirty;
+    private final AtomicLongArray summary;
+    private final ReentrantLock merging = new ReentrantLock();
+    private volatile long lastMergeNanos = System.nanoTime();
+
+    // by Category.ordinal()
+    private final AtomicLongArray versions = new AtomicLongArray(Category.values().length);
+    private final AtomicReferenceArray<Slice> slices = new AtomicReferenceArray<>(Category.values().length);
+
+    RankedIndex(List<ContentItem> items, int[] ordinals, ScoreBoard scores) {
+        this.scores = scores;
+        this.slots = new Entry[scores.capacity()];
+        this.dirty = new AtomicLongArray((slots.length + 63) >>> 6);
+        this.summary = new AtomicLongArray((dirty.length() + 63) >>> 6);
+        for (Category c : Category.values()) byCategory.put(c, new ConcurrentSkipListSet<>(ORDER));
+        for (int seq = 0; seq < items.size(); seq++) {
+            ContentItem item = items.get(seq);
+            int ord = ordinals[seq];
+            Entry e = new Entry(item, ord, scores.score(ord, item.getScore()), seq);
+            slots[ord] = e;
+            byCategory.get(item.getCategory()).add(e);
+        }
+    }
+
+    /** Flags an item for re-ranking. Allocation-free; a no-op read when already flagged. */
+    void markDirty(int ordinal) {
+        int word = ordinal >>> 6;
+        long bit = 1L << ordinal;
+        if (!setBit(dirty, word, bit)) return;
+        setBit(summary, word >>> 6, 1L << word);
+    }
+
+    private static boolean setBit(AtomicLongArray bits, int i, long bit) {
+        long w;
+        while (((w = bits.get(i)) & bit) == 0) {
+            if (bits.compareAndSet(i, w, w | bit)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves every flagged item to its current score. One thread merges at a time;
+     * others skip and read the order as it stands.
+     */
+    void merge() {
+        if (System.nanoTime() - lastMergeNanos < MERGE_EVERY_NANOS || !merging.tryLock()) return;
+        try {
+            lastMergeNanos = System.nanoTime();
+            for (int s = 0; s < summary.length(); s++) {
+                if (summary.get(s) == 0) continue;
+                long words = summary.getAndSet(s, 0);
+                while (words != 0) {
+                    int word = (s << 6) + Long.numberOfTrailingZeros(words);
+                    words &= words - 1;
+                    long bits = dirty.getAndSet(word, 0);
+                    while (bits != 0) {
+                        reposition((word << 6) + Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        } finally {
+            merging.unlock();
+        }
+    }
+
+    /** Re-reads every score; used once after a new catalog is published. */
+    void refreshAll() {
+        merging.lock();
+        try {
+            for (int ord = 0; ord < slots.length; ord++) reposition(ord);
+        } finally {
+            merging.unlock();
+        }
+    }
+
+    private void reposition(int ordinal) {
+        Entry old = slots[ordinal];
+        if (old == null) return;
+        int next = scores.clamp(ordinal, old.item().getScore());
+        if (next == old.score()) return;
+        Entry moved = new Entry(old.item(), ordinal, next, old.seq());
+        NavigableSet<Entry> ranked = byCategory.get(old.item().getCategory());
+        ranked.remove(old);
+        ranked.add(moved);
+        slots[ordinal] = moved;
+        versions.incrementAndGet(old.item().getCategory().ordinal());
+    }
+
+    /** Changes whenever a merge reorders the category; call {@link #merge} first to count pending feedback. */
+    long version(Category category) {
+        return versions.get(category.ordinal());
+    }
+
+    private Slice slice(Category category) {
+        int i = category.ordinal();
+        long v = versions.get(i);
+        Slice cached = slices.get(i);
+        if (cached != null && cached.version() == v) return cached;
+        // version read first: a merge during the copy leaves this slice stale and the next reader rebuilds
+        List<Entry> top = new ArrayList<>(SLICE);
+        Iterator<Entry> it = byCategory.get(category).iterator();
+        while (top.size() < SLICE && it.hasNext()) top.add(it.next());
+        Slice fresh = new Slice(v, List.copyOf(top), !it.hasNext());
+        slices.set(i, fresh);
+        return fresh;
+    }
+
+    /** Place in a category's ranking; a walk can resume just after it. */
+    record Mark(int score, int seq) {
+        static final Mark START = new Mark(Integer.MAX_VALUE, -1);
+    }
+
+    /**
+     * Lazily walks a category best-first from just after {@code after}, skipping
+     * hidden ordinals and ordinals {@code served} says the caller already has. Nothing
+     * past the last item pulled is touched, so a page costs O(limit).
+     */
+    Walk walk(Category category, OrdinalBitmap hidden, Mark after, IntPredicate served) {
+        if (after.equals(Mark.START)) {
+            // first page: serve from the cached slice, continue into the live set only if it runs out
+            Slice slice = slice(category);
+            Iterator<Entry> head = slice.top().iterator();
+            Iterator<Entry> it = slice.complete() || slice.top().isEmpty() ? head
+                    : new Chained(head, () -> after(category, slice.top().get(slice.top().size() - 1)));
+            return new Walk(it, hidden, served, after);
+        }
+        return new Walk(after(category, new Entry(null, -1, after.score(), after.seq())), hidden, served, after);
+    }
+
+    private Iterator<Entry> after(Category category, Entry probe) {
+        return byCategory.get(category).tailSet(probe, false).iterator();
+    }
+
+    private static final class Chained implements Iterator<Entry> {
+        private final Iterator<Entry> head;
+        private final Supplier<Iterator<Entry>> rest;
+        private Iterator<Entry> tail;
+
+        Chained(Iterator<Entry> head, Supplier<Iterator<Entry>> rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (head.hasNext()) return true;
+            if (tail == null) tail = rest.get();
+            return tail.hasNext();
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return head.hasNext() ? head.next() : tail.next();
+        }
+    }
+
+    Walk walk(Category category, OrdinalBitmap hidden) {
+        return walk(category, hidden, Mark.START, ord -> false);
+    }
+
+    static final class Walk implements Iterator<ContentItem> {
+        private final Iterator<Entry> it;
+        private final OrdinalBitmap hidden;
+        private final IntPredicate served;
+        // a concurrent merge can move an item we already passed ahead of us;
+        // a walk yields at most a page, so a scan beats boxing into a set
+        private int[] emitted = new int[16];
+        private int count;
+        private Entry next;
+        private Mark last;
+
+        private Walk(Iterator<Entry> it, OrdinalBitmap hidden, IntPredicate served, Mark start) {
+            this.it = it;
+            this.hidden = hidden;
+            this.served = served;
+            this.last = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && it.hasNext()) {
+                Entry e = it.next();
+                if (hidden.contains(e.ordinal()) || emitted(e.ordinal()) || served.test(e.ordinal())) continue;
+                next = e;
+            }
+            return next != null;
+        }
+
+        @Override
+        public ContentItem next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Entry out = next;
+            next = null;
+            if (count == emitted.length) emitted = Arrays.copyOf(emitted, count * 2);
+            emitted[count++] = out.ordinal();
+            last = new Mark(out.score(), out.seq());
+            return out.item();
+        }
+
+        private boolean emitted(int ordinal) {
+            for (int i = 0; i < count; i++) if (emitted[i] == ordinal) return true;
+            return false;
+        }
+
+        /** Position of the last item returned, or the starting mark if none yet. */
+        Mark mark() {
+            return last;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// src/main/java/com/moodrise/service/ScoreBoard.java
+package com.moodrise.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reinforcement counters by item ordinal. Each item gets a dense ordinal the
+ * first time any catalog contains it and keeps it across reloads, so the same
+ * striped cell backs the item in every catalog generation. Every change is
+ * also reported to a {@link Journal} so it can be made durable.
+ */
+final class ScoreBoard {
+
+    static final int FLOOR = -3;
+
+    interface Journal {
+        void append(String itemId, int delta);
+    }
+
+    private final Journal journal;
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile LongAdder[] cells = new LongAdder[0];
+    private volatile String[] ids = new String[0];
+
+    ScoreBoard(Journal journal) {
+        this.journal = journal;
+    }
+
+    /** Ordinal for an id, assigned on first sight. Only catalog loading calls this. */
+    synchronized int ordinal(String id) {
+        Integer known = ordinals.get(id);
+        if (known != null) return known;
+        int next = ordinals.size();
+        LongAdder[] cur = cells;
+        String[] names = ids;
+        if (next == cur.length) {
+            cur = Arrays.copyOf(cur, Math.max(64, cur.length * 2));
+            names = Arrays.copyOf(names, cur.length);
+        }
+        cur[next] = new LongAdder();
+        names[next] = id;
+        ids = names;
+        cells = cur;
+        ordinals.put(id, next);
+        return next;
+    }
+
+    /** Adds an item's raw total recovered from durable storage; not journaled. */
+    void restore(String id, long total) {
+        int ord = ordinal(id);
+        cells[ord].add(total);
+    }
+
+    String id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    int capacity() {
+        return cells.length;
+    }
+
+    // LongAdder spreads a hot item's writers over several cells, no boxing
+    void add(int ordinal, int delta) {
+        cells[ordinal].add(delta);
+        journal.append(ids[ordinal], delta);
+    }
+
+    /** Current score with the floor applied. */
+    int score(int ordinal, int base) {
+        return (int) Math.max(FLOOR, base + cells[ordinal].sum());
+    }
+
+    /**
+     * Folds a counter back up to the floor so an item pushed far below it
+     * recovers with the next positive reactions. Concurrent adds are kept.
+     */
+    int clamp(int ordinal, int base) {
+        LongAdder cell = cells[ordinal];
+        long raw = base + cell.sum();
+        if (raw < FLOOR) {
+            cell.add(FLOOR - raw);
+            journal.append(ids[ordinal], (int) (FLOOR - raw));
+        }
+        return (int) Math.max(FLOOR, raw);
+    }
+}
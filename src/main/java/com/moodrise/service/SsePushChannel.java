@@ -0,0 +1,220 @@
+// src/main/java/com/moodrise/service/SsePushChannel.java
+package com.moodrise.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PushChannel} over Server-Sent Events. Each open stream is an async
+ * request, so it holds no thread between events; a user may have a few (one
+ * per device or tab), the oldest closed beyond {@code streams-per-user}.
+ *
+ * <p>Writes go through a small sender pool, never the caller's thread, so the
+ * timer wheel and user locks do not wait on slow clients. Each stream queues
+ * at most {@code queue-per-stream} events and has at most one sender task at
+ * a time, so a client that stops reading holds one sender thread (until the
+ * container's write timeout, server.tomcat.connection-timeout) and its own
+ * queue, not the others'. A stream
+ * whose queue overflows is closed; the client reconnects and gets the current
+ * state. Each stream gets a comment line every {@code heartbeat}, scheduled on
+ * the {@link TimerWheel} from its own open time so beats spread out; it keeps
+ * proxies from closing idle streams and finds dead clients, whose write fails.
+ * A beat is skipped while the stream still has writes pending.
+ */
+@Component
+@RequiredArgsConstructor
+public class SsePushChannel implements PushChannel {
+
+    private final TimerWheel timers;
+    private final DayClock clock;
+
+    @Value("${moodrise.push.heartbeat:30s}")
+    private Duration heartbeat;
+    @Value("${moodrise.push.streams-per-user:4}")
+    private int streamsPerUser;
+    @Value("${moodrise.push.send-threads:4}")
+    private int sendThreads;
+    @Value("${moodrise.push.queue-per-stream:32}")
+    private int queuePerStream;
+
+    private final class Stream {
+        final String userId;
+        final SseEmitter emitter = new SseEmitter(0L);   // no timeout; closed by the client, a failed write or an overflow
+        final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayDeque<>();   // guarded by itself
+        boolean sending;                                  // a sender task owns the queue; guarded by queue
+        boolean ending;                                   // complete once the write in flight returns; guarded by queue
+        volatile TimerWheel.Timeout beat;
+        volatile boolean closed;
+
+        Stream(String userId) {
+            this.userId = userId;
+        }
+
+        void send(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            synchronized (queue) {
+                if (closed) return;
+                if (event == HEARTBEAT && sending) {
+                    beatsSkipped.increment();       // the pending writes keep the stream alive or find it dead
+                    return;
+                }
+                if (queue.size() < queuePerStream) {
+                    queue.add(event);
+                    if (sending) return;
+                    sending = true;
+                    sender.execute(this::drain);
+                    return;
+                }
+            }
+            overflows.increment();
+            end();
+        }
+
+        // closes the stream from this side. complete() waits on a write in flight, so
+        // that write's sender task completes it instead of the caller
+        void end() {
+            boolean now;
+            synchronized (queue) {
+                if (closed) return;
+                closed = true;
+                queue.clear();
+                ending = sending;
+                now = !sending;
+            }
+            closed();
+            if (now) emitter.complete();
+        }
+
+        private void drain() {
+            boolean complete;
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                synchronized (queue) {
+                    event = closed ? null : queue.poll();
+                    if (event == null) {
+                        sending = false;
+                        complete = ending;
+                        break;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // client gone: the container reports the failed write and the stream closes through onError
+                }
+            }
+            if (complete) {
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException e) {
+                    // the last write failed and the stream is already closed
+                }
+            }
+        }
+
+        void scheduleBeat() {
+            if (closed) return;
+            beat = timers.schedule(clock.millis() + heartbeat.toMillis(), t -> {
+                if (closed) return;
+                send(HEARTBEAT);
+                scheduleBeat();
+            });
+        }
+
+        void closed() {
+            closed = true;
+            TimerWheel.Timeout b = beat;
+            if (b != null) b.cancel();
+            streams.computeIfPresent(userId, (id, list) -> {
+                if (list.remove(this)) open.decrementAndGet();
+                return list.isEmpty() ? null : list;
+            });
+        }
+    }
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final Map<String, List<Stream>> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder beatsSkipped = new LongAdder();
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger n = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread t = new Thread(r, "sse-send-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+    }
+
+    /** Opens a stream for the user whose first event is {@code event} with {@code data}. */
+    public SseEmitter subscribe(String userId, String event, Object data) {
+        Stream stream = new Stream(userId);
+        Stream[] evicted = new Stream[1];
+        streams.compute(userId, (id, list) -> {
+            if (list == null) list = new CopyOnWriteArrayList<>();
+            if (list.size() >= streamsPerUser) evicted[0] = list.get(0);
+            list.add(stream);
+            open.incrementAndGet();
+            return list;
+        });
+        stream.emitter.onCompletion(stream::closed);
+        stream.emitter.onTimeout(stream::closed);
+        stream.emitter.onError(e -> stream.closed());
+        stream.send(event(event, data));
+        stream.scheduleBeat();
+        if (evicted[0] != null) evicted[0].end();
+        return stream.emitter;
+    }
+
+    @Override
+    public boolean push(String userId, String event, Object data) {
+        List<Stream> list = streams.get(userId);
+        if (list == null) return false;
+        Set<ResponseBodyEmitter.DataWithMediaType> e = event(event, data);
+        for (Stream stream : list) stream.send(e);
+        return true;
+    }
+
+    public int openStreams() {
+        return open.get();
+    }
+
+    /** Streams closed because their client fell {@code queue-per-stream} events behind. */
+    public long overflows() {
+        return overflows.sum();
+    }
+
+    /** Heartbeats skipped because the stream still had writes pending. */
+    public long beatsSkipped() {
+        return beatsSkipped.sum();
+    }
+
+    // built once: a builder appends on every build(), so it cannot be sent to several streams
+    private static Set<ResponseBodyEmitter.DataWithMediaType> event(String name, Object data) {
+        return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON).build();
+    }
+}
@@ -0,0 +1,172 @@
+// src/main/java/com/moodrise/service/TimerWheel.java
+package com.moodrise.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@link #LEVELS} wheels of {@link #SLOTS} slots,
+ * each slot a doubly linked list of timeouts, level n ticking once per
+ * SLOTS^n ticks. Scheduling and cancelling are O(1) whatever the number of
+ * pending timeouts. When a wheel wraps, the next slot of the level above is
+ * spread over the levels below, so a timeout moves down at most LEVELS-1 times
+ * before it fires. Deadlines are rounded up to the tick; tasks run on the
+ * wheel's thread and must not block.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TimerWheel {
+
+    private static final int BITS = 8;
+    static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    static final int LEVELS = 4;                // 2^32 ticks
+
+    /** A scheduled task; {@link #cancel} takes it off the wheel. */
+    public final class Timeout {
+        private final long deadlineTick;
+        private final Consumer<Timeout> task;
+        private Timeout prev, next;
+        private int level = -1, slot;           // level -1: fired or cancelled
+
+        private Timeout(long deadlineTick, Consumer<Timeout> task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /** Removes the timeout unless it already fired; true if it was still pending. */
+        public boolean cancel() {
+            synchronized (TimerWheel.this) {
+                if (level < 0) return false;
+                unlink(this);
+                return true;
+            }
+        }
+    }
+
+    private final DayClock clock;
+
+    @Value("${moodrise.timers.tick:1s}")
+    private Duration tick;
+
+    private long tickMillis;
+    private long current;                       // last tick processed
+    private int pending;
+    private final Timeout[][] heads = new Timeout[LEVELS][SLOTS];
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "timer-wheel");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    public void start() {
+        init();
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // the wheel at the clock's current tick, with no ticker: tests call advance() themselves
+    synchronized void init() {
+        tickMillis = tick.toMillis();
+        current = clock.millis() / tickMillis;
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /** Runs {@code task}, given its own timeout, on the first tick at or after {@code deadlineMillis}. */
+    public synchronized Timeout schedule(long deadlineMillis, Consumer<Timeout> task) {
+        long due = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), current + 1);
+        Timeout t = new Timeout(due, task);
+        insert(t);
+        pending++;
+        return t;
+    }
+
+    public synchronized int pending() {
+        return pending;
+    }
+
+    // fires every slot up to now, catching up if ticks were missed
+    void advance() {
+        long target = clock.millis() / tickMillis;
+        List<Timeout> due = new ArrayList<>();
+        synchronized (this) {
+            while (current < target) {
+                current++;
+                // top down: a slot cascaded from level n may land in the level n-1 slot cascaded next
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((current & ((1L << (BITS * level)) - 1)) == 0) {
+                        for (Timeout t = detach(level, slotOf(current, level)); t != null; ) {
+                            Timeout next = t.next;
+                            insert(t);
+                            t = next;
+                        }
+                    }
+                }
+                for (Timeout t = detach(0, slotOf(current, 0)); t != null; ) {
+                    Timeout next = t.next;
+                    t.prev = t.next = null;
+                    t.level = -1;
+                    pending--;
+                    due.add(t);
+                    t = next;
+                }
+            }
+        }
+        for (Timeout t : due) {
+            try {
+                t.task.accept(t);
+            } catch (RuntimeException e) {
+                log.error("timer task failed", e);
+            }
+        }
+    }
+
+    private void insert(Timeout t) {
+        long delta = t.deadlineTick - current;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        t.level = level;
+        t.slot = slotOf(t.deadlineTick, level);
+        t.prev = null;
+        t.next = heads[level][t.slot];
+        if (t.next != null) t.next.prev = t;
+        heads[level][t.slot] = t;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev == null) heads[t.level][t.slot] = t.next;
+        else t.prev.next = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.level = -1;
+        pending--;
+    }
+
+    private Timeout detach(int level, int slot) {
+        Timeout head = heads[level][slot];
+        heads[level][slot] = null;
+        return head;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) (tick >>> (BITS * level)) & MASK;
+    }
+}
@@ -2,135 +2,698 @@
 package com.moodrise.service;
 
 import com.moodrise.dto.LimitStatus;
+import com.moodrise.dto.SessionSummary;
+import com.moodrise.dto.Streaks;
+import com.moodrise.dto.UserSummary;
+import com.moodrise.dto.UserVersions;
+import com.moodrise.model.CalendarStore;
 import com.moodrise.model.DaySummary;
+import com.moodrise.model.OrdinalBitmap;
 import com.moodrise.model.UserState;
+import com.moodrise.persistence.ColdUserStore;
+import com.moodrise.persistence.UserEvent;
+import com.moodrise.persistence.UserEventLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Per-user state. Every operation runs under the lock stripe of its user, so
+ * the read-modify-write of one user's fields (and its calendar) is atomic
+ * while requests for users on other stripes run in parallel.
+ *
+ * <p>Users live in two tiers: hot on heap, and idle ones serialized to the
+ * {@link ColdUserStore}. A sweep moves users idle for {@code idle-evict-after}
+ * to the cold tier, then the least recently used ones while the hot tier is
+ * over {@code heap-budget-mb}; the next request for a cold user faults it back
+ * in. Only writes create users; reads of an unknown user see defaults. A
+ * restart restores idle users straight to the cold tier and keeps the rest
+ * within the budget as it goes.
+ *
+ * <p>Every change is an {@link UserEvent}: applied to the state, then logged
+ * to the {@link UserEventLog}, which replays the events on restart.
+ *
+ * <p>Each pending mood re-check is a timeout on the {@link TimerWheel}; when it
+ * comes due the user gets a {@code check-due} event on the {@link PushChannel}.
+ * Reaching the daily cap pushes {@code daily-cap-reached}.
+ *
+ * <p>Changes also bump the user's {@link VersionStripes} counters, which tag
+ * calendar, streak and feed reads for conditional GETs.
+ */
+@Slf4j
 @Service
-public class UserService {
+@RequiredArgsConstructor
+public class UserService implements UserStore {
 
     private static final long DAILY_CAP_MILLIS = 60L * 60L * 1000L;   // 60 minutes
     private static final long FIRST_RECHECK_SEC = 5L * 60L;           // 5 minutes
     private static final long NEXT_RECHECK_MIN_SEC = 15L * 60L;       // 15 minutes
     private static final long NEXT_RECHECK_MAX_SEC = 20L * 60L;       // 20 minutes
+    private static final int LOCK_STRIPES = 1024;                     // power of two
+    private static final int USAGE_TAG_MILLIS = 60_000;               // calendar tags follow usage by the minute
+    private static final int RECOVERY_BUDGET_CHECK = 1 << 18;         // users restored or events replayed between checks
+    private static final int MIN_MOOD = 1, MAX_MOOD = 5;
+    private static final long MAP_ENTRY_BYTES = 32 + 4;               // ConcurrentHashMap node + table slot
+    private static final int MEMORY_SAMPLE = 10_000;                  // users sampled by memoryReport
+
+    private final ColdUserStore cold;
+    private final UserEventLog events;
+    private final ContentService content;
+    private final DayClock clock;
+    private final TimerWheel timers;
+    private final PushChannel push;
+
+    @Value("${moodrise.users.idle-evict-after:30m}")
+    private Duration idleEvictAfter;
+    @Value("${moodrise.users.heap-budget-mb:512}")
+    private long heapBudgetMb;
+    @Value("${moodrise.users.sweep-interval:30s}")
+    private Duration sweepInterval;
+    @Value("${moodrise.users.expected:1000000}")
+    private int expectedUsers;
 
     private final Map<String, UserState> users = new ConcurrentHashMap<>();
-    private final Random rand = new Random();
-
-    public UserState getOrCreate(String userId) {
-        return users.compute(userId, (k, s) -> {
-            LocalDate today = LocalDate.now();
-            if (s == null) {
-                return UserState.builder()
-                        .userId(userId)
-                        .currentDay(today)
-                        .hiddenItemIds(new HashSet<>())
-                        .calendar(new HashMap<>())
-                        .usageTodayMillis(0L)
-                        .goodMoodStreakDays(0)
-                        .build();
+    private final Map<String, TimerWheel.Timeout> checkTimers = new ConcurrentHashMap<>();
+    private final Object[] locks = newLocks();
+    private VersionStripes versions;                                  // sized from expectedUsers in start()
+
+    // tier metrics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder faultNanos = new LongAdder();
+    private final AtomicLong maxFaultNanos = new AtomicLong();
+    // recovery progress, for the heap budget checks while restoring
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicBoolean recoveryEvicting = new AtomicBoolean();
+
+    // cold ids by log partition, from one scan per snapshot round (see coldIds)
+    private final Object coldIdsLock = new Object();
+    private List<List<String>> coldIds;
+    private long coldIdsVersion;
+
+    private final LongAdder handoffsIn = new LongAdder();
+    private final LongAdder handoffsOut = new LongAdder();
+    private final LongAdder checksPushed = new LongAdder();
+
+    // asked for users missing here, while another node may still hold them (PartitionedUserStore)
+    private volatile Function<String, byte[]> previousOwner;
+    // states pulled from the previous owner and not adopted yet, so concurrent misses share one pull
+    private final Map<String, CompletableFuture<byte[]>> pulls = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "user-evict");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+        return locks;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        versions = new VersionStripes(VersionStripes.sizeFor(expectedUsers));
+        long now = clock.millis();
+        long idleBefore = now - idleEvictAfter.toMillis();
+        events.recover(this::snapshot,
+                state -> {
+                    restore(state, idleBefore, now);
+                    recovering();
+                },
+                e -> {
+                    synchronized (lockFor(e.userId())) {
+                        replay(e, now);
+                    }
+                    recovering();
+                });
+        startSweeper();
+    }
+
+    // a snapshotted user: straight to the cold tier if idle, so restarting never needs every user on heap
+    private void restore(byte[] state, long idleBefore, long now) {
+        UserState u = stateOf(state);
+        synchronized (lockFor(u.getUserId())) {
+            if (idleEvictAfter.toMillis() > 0 && u.getLastInteractionMillis() <= idleBefore) {
+                cold.put(u.getUserId(), state);
+            } else {
+                u.setLastAccessMillis(u.getLastInteractionMillis());
+                users.put(u.getUserId(), u);
             }
-            // Reset daily stats if day rolled over
-            if (!today.equals(s.getCurrentDay())) {
-                s.setCurrentDay(today);
-                s.setUsageTodayMillis(0);
-                s.setMoodStart(null);
-                s.setMoodCurrent(null);
-                s.setSessionStartTs(null);
-                s.setLastInteractionTs(null);
-                s.setNextCheckTs(null);
+            if (u.getNextCheckMillis() > now) scheduleCheck(u.getUserId(), u.getNextCheckMillis());
+        }
+    }
+
+    // caller holds the user's stripe; the event's user is faulted in like any request would
+    private void replay(UserEvent e, long now) {
+        String userId = e.userId();
+        switch (e.type()) {
+            case IMPORT -> {
+                UserState u = stateOf(e.state());
+                u.setLastAccessMillis(e.ts());
+                cold.take(userId);
+                users.put(userId, u);
+                scheduleCheck(userId, u.getNextCheckMillis() > now ? u.getNextCheckMillis() : UserState.UNSET);
+                return;
             }
-            return s;
-        });
+            case RELEASE -> {
+                if (users.remove(userId) == null) cold.take(userId);
+                scheduleCheck(userId, UserState.UNSET);
+                return;
+            }
+            default -> { }
+        }
+        UserState u = users.get(userId);
+        if (u == null) {
+            byte[] state = cold.take(userId);
+            u = state != null ? stateOf(state) : new UserState(userId, clock.epochDay(null, e.ts()));
+            users.put(userId, u);
+        }
+        u.setLastAccessMillis(Math.max(u.getLastAccessMillis(), e.ts()));
+        // the snapshot may already hold events logged while it was taken
+        if (e.seq() <= u.getEventSeq()) return;
+        long check = u.getNextCheckMillis();
+        apply(u, e);
+        if (u.getNextCheckMillis() != check) {
+            scheduleCheck(userId, u.getNextCheckMillis() > now ? u.getNextCheckMillis() : UserState.UNSET);
+        }
     }
 
-    public void startSession(String userId, int moodStart) {
-        UserState u = getOrCreate(userId);
-        Instant now = Instant.now();
+    // every so often during recovery, one thread at a time evicts what is over the heap budget
+    private void recovering() {
+        if (recovered.incrementAndGet() % RECOVERY_BUDGET_CHECK != 0 || heapBudgetMb <= 0) return;
+        if (!recoveryEvicting.compareAndSet(false, true)) return;
+        try {
+            evictOverBudget(heapBudgetMb << 20);
+        } finally {
+            recoveryEvicting.set(false);
+        }
+    }
 
-        // Enforce daily cap quickly: if over, don't start
-        if (u.getUsageTodayMillis() >= DAILY_CAP_MILLIS) return;
+    private void startSweeper() {
+        long every = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, every, every, TimeUnit.MILLISECONDS);
+    }
 
-        u.setSessionStartTs(now);
-        u.setLastInteractionTs(now);
-        u.setMoodStart(moodStart);
-        u.setMoodCurrent(moodStart);
+    @PreDestroy
+    public void stopSweeper() {
+        sweeper.shutdownNow();
+    }
 
-        // schedule first recheck at +5 minutes
-        u.setNextCheckTs(now.plusSeconds(FIRST_RECHECK_SEC));
+    private Object lockFor(String userId) {
+        int h = userId.hashCode();
+        return locks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
 
-        // init today in calendar
-        u.getCalendar().computeIfAbsent(LocalDate.now(), d ->
-                DaySummary.builder().moodStart(moodStart).moodEnd(null).usageMillis(0L).build());
+    /** Runs {@code op} on the user, creating it if unknown. */
+    private <T> T withUser(String userId, Function<UserState, T> op) {
+        UserStore.checkUserId(userId);
+        byte[] handed = pulled(userId);
+        synchronized (lockFor(userId)) {
+            UserState u = resident(userId, handed);
+            if (u == null) {
+                long now = clock.millis();
+                u = new UserState(userId, clock.epochDay(null, now));
+                u.setLastAccessMillis(now);
+                users.put(userId, u);
+            }
+            return op.apply(u);
+        }
     }
 
-    public void recordInteraction(String userId) {
-        UserState u = getOrCreate(userId);
-        Instant now = Instant.now();
+    /** Runs {@code op} on the user if it exists; otherwise returns {@code absent} without creating it. */
+    private <T> T readUser(String userId, Function<UserState, T> op, T absent) {
+        UserStore.checkUserId(userId);
+        byte[] handed = pulled(userId);
+        synchronized (lockFor(userId)) {
+            UserState u = resident(userId, handed);
+            return u == null ? absent : op.apply(u);
+        }
+    }
 
-        // Update usage delta since last interaction
-        if (u.getLastInteractionTs() != null) {
-            long delta = Duration.between(u.getLastInteractionTs(), now).toMillis();
-            long newTotal = Math.min(DAILY_CAP_MILLIS, u.getUsageTodayMillis() + Math.max(0, delta));
-            u.setUsageTodayMillis(newTotal);
-            // update calendar usage
-            DaySummary ds = u.getCalendar().computeIfAbsent(LocalDate.now(), d ->
-                    DaySummary.builder().moodStart(u.getMoodStart()).moodEnd(u.getMoodCurrent()).usageMillis(0L).build());
-            ds.setUsageMillis(newTotal);
+    // hot user, cold one faulted back in, or the one handed over by the previous owner; null if
+    // unknown. Caller holds the user's stripe
+    private UserState resident(String userId, byte[] handed) {
+        UserState s;
+        if (handed != null && pulls.remove(userId) != null) {
+            // not adopted by a concurrent caller yet
+            s = reconcileLocked(stateOf(handed), handed);
+        } else if ((s = users.get(userId)) != null) {
+            hits.increment();
+        } else {
+            long started = System.nanoTime();
+            byte[] state = cold.take(userId);
+            if (state != null) {
+                s = stateOf(state);
+                users.put(userId, s);
+                long took = System.nanoTime() - started;
+                faults.increment();
+                faultNanos.add(took);
+                maxFaultNanos.accumulateAndGet(took, Math::max);
+            } else {
+                misses.increment();
+                return null;
+            }
         }
-        u.setLastInteractionTs(now);
+        long now = clock.millis();
+        s.setLastAccessMillis(now);
+        rollover(s, clock.epochDay(s.getZone(), now));
+        return s;
     }
 
-    public void moodCheck(String userId, int mood) {
-        UserState u = getOrCreate(userId);
-        u.setMoodCurrent(mood);
-        recordInteraction(userId);
+    // state the previous owner hands over for a user missing here, or null. Fetched without the
+    // user's stripe, so a slow node holds up callers for this user only, not the stripe's others
+    private byte[] pulled(String userId) {
+        Function<String, byte[]> from = previousOwner;
+        if (from == null) return null;
+        synchronized (lockFor(userId)) {
+            if (users.containsKey(userId) || cold.contains(userId)) return null;
+        }
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> pull = pulls.putIfAbsent(userId, mine);
+        if (pull != null) return pull.join();
+        byte[] state = null;
+        try {
+            state = from.apply(userId);
+        } finally {
+            mine.complete(state);
+            // a state stays listed until resident() adopts it
+            if (state == null) pulls.remove(userId, mine);
+        }
+        return state;
+    }
 
+    private void rollover(UserState s, int today) {
+        // Reset daily stats if day rolled over. Never back to an earlier date (a move to a zone
+        // further west) once the day has activity: that would hand out a fresh daily cap
+        if (today > s.getEpochDay() || (today < s.getEpochDay() && s.getLastInteractionMillis() == UserState.UNSET)) {
+            if (s.getNextCheckMillis() != UserState.UNSET) scheduleCheck(s.getUserId(), UserState.UNSET);
+            s.setEpochDay(today);
+            s.setUsageTodayMillis(0);
+            s.setMoodStart(UserState.NO_MOOD);
+            s.setMoodCurrent(UserState.NO_MOOD);
+            s.setSessionStartMillis(UserState.UNSET);
+            s.setLastInteractionMillis(UserState.UNSET);
+            s.setNextCheckMillis(UserState.UNSET);
+        }
+    }
+
+    // serialized form for the cold tier, snapshots and handoffs: hidden items by id, not by this run's ordinals
+    private byte[] bytesOf(UserState u) {
+        return u.toBytes(content::itemId);
+    }
+
+    private UserState stateOf(byte[] state) {
+        return UserState.fromBytes(state, content::ordinal);
+    }
+
+    // ---- Handoff between nodes (PartitionedUserStore) ----
+
+    /**
+     * Serialized state of a user this node is handing to another, or null if
+     * the user is not here. The user stays here, and pulls get the same answer,
+     * until the new owner has adopted it and {@link #release} drops it. Hidden
+     * items travel by id: ordinals differ from node to node.
+     */
+    public byte[] handOff(String userId) {
+        synchronized (lockFor(userId)) {
+            UserState u = users.get(userId);
+            return u != null ? bytesOf(u) : cold.get(userId);
+        }
+    }
+
+    /**
+     * Drops a user its new owner has adopted from {@code handedOver}. A user
+     * that took events here since stays, for the next handoff to carry them;
+     * returns whether the user is gone.
+     */
+    public boolean release(String userId, byte[] handedOver) {
+        int adopted = stateOf(handedOver).getEventSeq();
+        synchronized (lockFor(userId)) {
+            UserState u = local(userId);
+            if (u == null) return true;
+            if (u.getEventSeq() > adopted) return false;
+            users.remove(userId);
+            cold.take(userId);
+            scheduleCheck(userId, UserState.UNSET);
+            changed(userId);
+            events.append(UserEvent.released(userId, clock.millis()));
+            handoffsOut.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Takes over a user handed over by another node. The same user can arrive
+     * twice, pulled and then pushed: a copy here that has seen as many events wins.
+     */
+    public void adopt(byte[] state) {
+        UserState handed = stateOf(state);
+        synchronized (lockFor(handed.getUserId())) {
+            reconcileLocked(handed, state);
+        }
+    }
+
+    // caller holds the user's stripe. Returns the user as it stands here afterwards, hot
+    private UserState reconcileLocked(UserState handed, byte[] state) {
+        String userId = handed.getUserId();
+        UserState mine = local(userId);
+        if (mine != null && mine.getEventSeq() >= handed.getEventSeq()) {
+            if (cold.take(userId) != null) users.put(userId, mine);
+            return mine;
+        }
+        if (mine != null) {
+            users.remove(userId);
+            cold.take(userId);
+            log.info("user {} handed over at event {}, ahead of the copy here at {}", userId, handed.getEventSeq(), mine.getEventSeq());
+        }
+        return adoptLocked(handed, state);
+    }
+
+    // hot or cold copy of a user, without faulting it in; caller holds the user's stripe
+    private UserState local(String userId) {
+        UserState u = users.get(userId);
+        if (u != null) return u;
+        byte[] state = cold.get(userId);
+        return state == null ? null : stateOf(state);
+    }
+
+    // caller holds the user's stripe. Hidden item ids map to this node's ordinals in stateOf
+    private UserState adoptLocked(UserState u, byte[] state) {
+        long now = clock.millis();
+        u.setLastAccessMillis(now);
+        users.put(u.getUserId(), u);
+        changed(u.getUserId());
+        events.append(UserEvent.imported(u.getUserId(), u.getEventSeq(), now, state));
+        if (u.getNextCheckMillis() > now) scheduleCheck(u.getUserId(), u.getNextCheckMillis());
+        handoffsIn.increment();
+        return u;
+    }
+
+    /** Where to look for users missing here; null when no other node can hold them. */
+    public void setPreviousOwner(Function<String, byte[]> lookup) {
+        this.previousOwner = lookup;
+    }
+
+    // true once no other node can still hold users that belong here
+    boolean handoffDone() {
+        return previousOwner == null;
+    }
+
+    /** Ids of all users on this node, hot and cold. */
+    public List<String> userIds() {
+        Set<String> ids = new HashSet<>();
+        long version;
+        do {
+            version = cold.version();
+            cold.forEachId(ids::add);
+            ids.addAll(users.keySet());
+            // a user evicted between the two scans is in neither: look again after any put
+        } while (cold.version() != version);
+        return new ArrayList<>(ids);
+    }
+
+    /** Hidden items by id, for a node whose catalog numbers items differently. */
+    public List<String> hiddenItemIds(String userId) {
+        return itemIds(hidden(userId));
+    }
+
+    public List<String> itemIds(OrdinalBitmap hidden) {
+        List<String> ids = new ArrayList<>(hidden.cardinality());
+        hidden.forEach(ord -> ids.add(content.itemId(ord)));
+        return ids;
+    }
+
+    /** Serialized states of one log partition's users, hot or cold, for UserEventLog snapshots. */
+    private void snapshot(int partition, Consumer<byte[]> out) {
+        Set<String> ids = new HashSet<>();
+        long version;
+        do {
+            version = coldIds(partition, ids);
+            for (String id : users.keySet()) if (events.partition(id) == partition) ids.add(id);
+            // a user evicted between the two scans is in neither: look again after any put
+        } while (cold.version() != version);
+        for (String id : ids) {
+            byte[] state;
+            synchronized (lockFor(id)) {
+                UserState u = users.get(id);
+                state = u != null ? bytesOf(u) : cold.get(id);
+            }
+            if (state != null) out.accept(state);
+        }
+    }
+
+    // adds one partition's cold ids, from a scan of the cold index shared by the partitions of a
+    // snapshot round; each partition takes its share once, and any put since the scan voids it.
+    // Returns the cold tier version the ids are complete for
+    private long coldIds(int partition, Set<String> into) {
+        synchronized (coldIdsLock) {
+            if (coldIds == null || coldIds.get(partition) == null || coldIdsVersion != cold.version()) {
+                List<List<String>> byPartition = new ArrayList<>();
+                long version;
+                do {
+                    byPartition.clear();
+                    for (int p = 0; p < events.partitions(); p++) byPartition.add(new ArrayList<>());
+                    version = cold.version();
+                    cold.forEachId(id -> byPartition.get(events.partition(id)).add(id));
+                } while (cold.version() != version);
+                coldIds = byPartition;
+                coldIdsVersion = version;
+            }
+            into.addAll(coldIds.set(partition, null));
+            if (coldIds.stream().allMatch(Objects::isNull)) coldIds = null;
+            return coldIdsVersion;
+        }
+    }
+
+    // a share no snapshot will take any more: do not keep the ids on heap until the next round
+    private void dropStaleColdIds() {
+        synchronized (coldIdsLock) {
+            if (coldIds != null && coldIdsVersion != cold.version()) coldIds = null;
+        }
+    }
+
+    // idle users first, then least recently used ones while over the heap budget
+    private void sweep() {
+        try {
+            long idle = idleEvictAfter.toMillis();
+            if (idle > 0) {
+                long cutoff = clock.millis() - idle;
+                for (UserState u : users.values()) {
+                    if (u.getLastAccessMillis() <= cutoff) evict(u.getUserId(), cutoff);
+                }
+            }
+            long budget = heapBudgetMb << 20;
+            if (budget > 0) evictOverBudget(budget);
+            dropStaleColdIds();
+            // here rather than on the fault-in that frees the space: a pass is a step at a time
+            while (cold.compact()) Thread.yield();
+        } catch (RuntimeException e) {
+            log.error("user eviction sweep failed", e);
+        }
+    }
+
+    private void evictOverBudget(long budget) {
+        long bytes = 0;
+        long[] access = new long[users.size()];
+        int n = 0;
+        for (UserState u : users.values()) {
+            bytes += u.estimatedBytes() + MAP_ENTRY_BYTES;
+            if (n < access.length) access[n++] = u.getLastAccessMillis();
+        }
+        if (bytes <= budget || n == 0) return;
+        // evict the oldest share of users that is over budget, plus 5% headroom
+        Arrays.sort(access, 0, n);
+        int over = (int) Math.min(n - 1, n * (bytes - budget) / bytes + n / 20);
+        long cutoff = access[over];
+        for (UserState u : users.values()) {
+            if (u.getLastAccessMillis() <= cutoff) evict(u.getUserId(), cutoff);
+        }
+    }
+
+    // moves a user to the cold tier unless it was used after the cutoff meanwhile
+    private void evict(String userId, long accessedBy) {
+        synchronized (lockFor(userId)) {
+            UserState u = users.get(userId);
+            if (u == null || u.getLastAccessMillis() > accessedBy) return;
+            cold.put(userId, bytesOf(u));
+            users.remove(userId);
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public void startSession(String userId, int moodStart, String zone) {
+        // parsed before anything is logged: only known zone ids reach the event log
+        ZoneId z = zone == null ? null : UserState.zone(zone);
+        withUser(userId, u -> {
+            long now = clock.millis();
+            if (z != null && !z.equals(u.getZone())) {
+                record(u, UserEvent.zone(userId, u.getEventSeq() + 1, now, z.getId()));
+            }
+            return record(u, UserEvent.start(userId, u.getEventSeq() + 1, now, mood(moodStart)));
+        });
+    }
+
+    @Override
+    public void recordInteraction(String userId) {
+        readUser(userId, u -> record(u, UserEvent.interact(userId, u.getEventSeq() + 1, clock.millis())), null);
+    }
+
+    @Override
+    public void moodCheck(String userId, int mood) {
         // schedule next recheck 15–20 min from now
-        long next = NEXT_RECHECK_MIN_SEC + rand.nextInt((int)(NEXT_RECHECK_MAX_SEC - NEXT_RECHECK_MIN_SEC + 1));
-        u.setNextCheckTs(Instant.now().plusSeconds(next));
-    }
-
-    public Map<String, Object> endSession(String userId, int moodEnd) {
-        UserState u = getOrCreate(userId);
-        recordInteraction(userId);
-
-        u.setMoodCurrent(moodEnd);
-        // finalize day summary
-        DaySummary ds = u.getCalendar().computeIfAbsent(LocalDate.now(), d ->
-                DaySummary.builder().moodStart(u.getMoodStart()).moodEnd(moodEnd).usageMillis(u.getUsageTodayMillis()).build());
-        if (ds.getMoodStart() == null) ds.setMoodStart(u.getMoodStart());
-        ds.setMoodEnd(moodEnd);
-        ds.setUsageMillis(u.getUsageTodayMillis());
-
-        // streaks: consider "good mood" as moodEnd >= 4
-        // If yesterday had good mood and today good too -> increment
-        LocalDate today = u.getCurrentDay();
-        LocalDate yesterday = today.minusDays(1);
-        DaySummary ys = u.getCalendar().get(yesterday);
-        boolean yesterdayGood = (ys != null && ys.getMoodEnd() != null && ys.getMoodEnd() >= 4);
-        boolean todayGood = (moodEnd >= 4);
-        if (todayGood) {
-            u.setGoodMoodStreakDays((yesterdayGood ? u.getGoodMoodStreakDays() + 1 : Math.max(1, u.getGoodMoodStreakDays())));
-        } else {
-            u.setGoodMoodStreakDays(0);
+        int next = (int) ThreadLocalRandom.current().nextLong(NEXT_RECHECK_MIN_SEC, NEXT_RECHECK_MAX_SEC + 1);
+        withUser(userId, u -> record(u, UserEvent.check(userId, u.getEventSeq() + 1, clock.millis(), mood(mood), next)));
+    }
+
+    @Override
+    public SessionSummary endSession(String userId, int moodEnd) {
+        return withUser(userId, u -> {
+            Integer start = moodOrNull(u.getMoodStart());
+            record(u, UserEvent.end(userId, u.getEventSeq() + 1, clock.millis(), mood(moodEnd)));
+            return new SessionSummary(start, moodEnd, start == null ? null : moodEnd - start, tipForDelta(start, moodEnd));
+        });
+    }
+
+    @Override
+    public void hide(String userId, String itemId) {
+        // ids outside the catalog are never logged, whatever their size; they still count as activity
+        boolean known = itemId != null && content.ordinal(itemId) >= 0;
+        withUser(userId, u -> record(u, known
+                ? UserEvent.hide(userId, u.getEventSeq() + 1, clock.millis(), itemId)
+                : UserEvent.interact(userId, u.getEventSeq() + 1, clock.millis())));
+    }
+
+    // caller holds the user's stripe: apply, then log in the same order
+    private Void record(UserState u, UserEvent e) {
+        long due = u.getNextCheckMillis();
+        int used = u.getUsageTodayMillis();
+        OrdinalBitmap hidden = u.getHiddenItems();
+        CalendarStore calendar = u.calendar();
+        int edits = calendar.edits();
+        apply(u, e);
+        events.append(e);
+        // a new zone moves the user's day, which the streak depends on
+        if (u.calendar() != calendar || calendar.edits() != edits || e.type() == UserEvent.Type.ZONE) {
+            versions.daysChanged(u.getUserId());
+        }
+        if (u.getUsageTodayMillis() / USAGE_TAG_MILLIS != used / USAGE_TAG_MILLIS) versions.usageChanged(u.getUserId());
+        if (u.getHiddenItems() != hidden) versions.hiddenChanged(u.getUserId());
+        if (u.getNextCheckMillis() != due) scheduleCheck(u.getUserId(), u.getNextCheckMillis());
+        if (used < DAILY_CAP_MILLIS && u.getUsageTodayMillis() >= DAILY_CAP_MILLIS) {
+            push.push(u.getUserId(), "daily-cap-reached", limitOf(u.getUsageTodayMillis()));
+        }
+        return null;
+    }
+
+    // ---- Mood re-check prompts ----
+
+    // replaces the user's pending check with one at due (UNSET: none); caller holds the user's stripe
+    private void scheduleCheck(String userId, long due) {
+        TimerWheel.Timeout old = due == UserState.UNSET
+                ? checkTimers.remove(userId)
+                : checkTimers.put(userId, timers.schedule(due, t -> checkDue(userId, due, t)));
+        if (old != null) old.cancel();
+    }
+
+    // wheel thread; a check replaced since has removed this timeout already
+    private void checkDue(String userId, long due, TimerWheel.Timeout timeout) {
+        synchronized (lockFor(userId)) {
+            if (!checkTimers.remove(userId, timeout)) return;
         }
+        if (push.push(userId, "check-due", Map.of("dueTs", Instant.ofEpochMilli(due)))) checksPushed.increment();
+    }
 
-        // stop session markers
-        u.setSessionStartTs(null);
-        u.setNextCheckTs(null);
+    /**
+     * The one place operations change a user, live or replayed from the log.
+     * Everything it reads comes from the event (time, mood, next-check delay),
+     * so replay rebuilds the same state.
+     */
+    private void apply(UserState u, UserEvent e) {
+        u.setEventSeq(e.seq());
+        rollover(u, clock.epochDay(u.getZone(), e.ts()));
+        switch (e.type()) {
+            case START -> {
+                // Enforce daily cap quickly: if over, don't start
+                if (u.getUsageTodayMillis() >= DAILY_CAP_MILLIS) return;
 
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("moodStart", u.getMoodStart());
-        resp.put("moodEnd", moodEnd);
-        Integer start = u.getMoodStart();
-        if (start != null) resp.put("delta", moodEnd - start);
-        resp.put("tip", tipForDelta(start, moodEnd));
-        return resp;
+                u.setSessionStartMillis(e.ts());
+                u.setLastInteractionMillis(e.ts());
+                u.setMoodStart((byte) e.mood());
+                u.setMoodCurrent((byte) e.mood());
+
+                // schedule first recheck at +5 minutes
+                u.setNextCheckMillis(e.ts() + FIRST_RECHECK_SEC * 1000L);
+
+                // init today in calendar
+                u.calendarForUpdate().open(u.getEpochDay(), u.getMoodStart(), UserState.NO_MOOD);
+            }
+            case CHECK -> {
+                u.setMoodCurrent((byte) e.mood());
+                touch(u, e.ts());
+                u.setNextCheckMillis(e.ts() + e.nextCheckSec() * 1000L);
+            }
+            case INTERACT -> touch(u, e.ts());
+            case HIDE -> {
+                // copy-on-write: feed requests may still be walking the previous set
+                int ordinal = content.ordinal(e.itemId());
+                if (ordinal >= 0) u.setHiddenItems(u.getHiddenItems().with(ordinal));
+                touch(u, e.ts());
+            }
+            case ZONE -> {
+                // a move to a zone on a later date starts that date, like any rollover; on an
+                // earlier one the user keeps the current date until the new zone reaches it
+                u.setZone(UserState.zone(e.zone()));
+                rollover(u, clock.epochDay(u.getZone(), e.ts()));
+            }
+            case IMPORT, RELEASE -> throw new IllegalArgumentException("not a state change: " + e.type());
+            case END -> {
+                touch(u, e.ts());
+
+                u.setMoodCurrent((byte) e.mood());
+                // finalize day summary
+                int today = u.getEpochDay();
+                CalendarStore calendar = u.calendarForUpdate();
+                if (calendar.moodStart(today) == 0) calendar.setMoodStart(today, u.getMoodStart());
+                calendar.setMoodEnd(today, u.getMoodCurrent());
+                calendar.setUsageSeconds(today, u.getUsageTodayMillis() / 1000);
+
+                // stop session markers
+                u.setSessionStartMillis(UserState.UNSET);
+                u.setNextCheckMillis(UserState.UNSET);
+            }
+        }
+    }
+
+    private void touch(UserState u, long now) {
+        // Update usage delta since last interaction
+        if (u.getLastInteractionMillis() != UserState.UNSET) {
+            long delta = now - u.getLastInteractionMillis();
+            long newTotal = Math.min(DAILY_CAP_MILLIS, u.getUsageTodayMillis() + Math.max(0, delta));
+            u.setUsageTodayMillis((int) newTotal);
+            // update calendar usage
+            CalendarStore calendar = u.calendarForUpdate();
+            calendar.open(u.getEpochDay(), u.getMoodStart(), u.getMoodCurrent());
+            calendar.setUsageSeconds(u.getEpochDay(), newTotal / 1000);
+        }
+        u.setLastInteractionMillis(now);
     }
 
     private String tipForDelta(Integer start, Integer end) {
@@ -142,35 +705,157 @@ public class UserService {
         return "Tough session—consider a short rest from screens, a walk, or talk to a friend.";
     }
 
+    @Override
     public LimitStatus limitStatus(String userId) {
-        UserState u = getOrCreate(userId);
-        long remaining = Math.max(0, DAILY_CAP_MILLIS - u.getUsageTodayMillis());
+        return limitOf(readUser(userId, UserState::getUsageTodayMillis, 0));
+    }
+
+    private static LimitStatus limitOf(long used) {
+        long remaining = Math.max(0, DAILY_CAP_MILLIS - used);
         return LimitStatus.builder()
                 .allowed(remaining > 0)
                 .remainingMillisToday(remaining)
-                .usedMillisToday(u.getUsageTodayMillis())
+                .usedMillisToday(used)
                 .dailyCapMillis(DAILY_CAP_MILLIS)
                 .build();
     }
 
+    @Override
     public Instant nextCheckTs(String userId) {
-        return getOrCreate(userId).getNextCheckTs();
+        return readUser(userId, u -> u.getNextCheckMillis() == UserState.UNSET ? null : Instant.ofEpochMilli(u.getNextCheckMillis()), null);
     }
 
-    public Set<String> hidden(String userId) {
-        return getOrCreate(userId).getHiddenItemIds();
+    @Override
+    public Integer latestMood(String userId) {
+        return readUser(userId, u -> moodOrNull(u.getMoodCurrent()), null);
     }
 
-    public void hide(String userId, String itemId) {
-        getOrCreate(userId).getHiddenItemIds().add(itemId);
-        recordInteraction(userId);
+    @Override
+    public OrdinalBitmap hidden(String userId) {
+        return readUser(userId, UserState::getHiddenItems, OrdinalBitmap.EMPTY);
+    }
+
+    /**
+     * Recorded days in [from, to] in date order, copied out so they are safe to
+     * serialize after the lock is released. A null bound means that end of the
+     * history; the cost is the days in range, not the whole history.
+     */
+    @Override
+    public Map<LocalDate, DaySummary> calendar(String userId, LocalDate from, LocalDate to) {
+        Map<LocalDate, DaySummary> days = new LinkedHashMap<>();
+        return readUser(userId, u -> {
+            CalendarStore calendar = u.calendar();
+            if (calendar.isEmpty()) return days;
+            int lo = from == null ? calendar.firstDay() : (int) from.toEpochDay();
+            int hi = to == null ? calendar.lastDay() : (int) to.toEpochDay();
+            calendar.forEachDay(lo, hi, d -> days.put(LocalDate.ofEpochDay(d), calendar.summary(d)));
+            return days;
+        }, days);
+    }
+
+    @Override
+    public Streaks streaks(String userId) {
+        return readUser(userId, u -> {
+            long now = clock.millis();
+            versions.validUntil(userId, clock.dayEnd(u.getZone(), now), now);
+            return streaksOf(u);
+        }, Streaks.NONE);
+    }
+
+    private static Streaks streaksOf(UserState u) {
+        return new Streaks(u.calendar().currentStreak(u.getEpochDay()), u.calendar().longestStreak());
+    }
+
+    @Override
+    public UserSummary summary(String userId) {
+        return readUser(userId, u -> {
+            record(u, UserEvent.interact(userId, u.getEventSeq() + 1, clock.millis()));
+            return UserSummary.builder()
+                    .limit(limitOf(u.getUsageTodayMillis()))
+                    .nextCheckTs(u.getNextCheckMillis() == UserState.UNSET ? null : Instant.ofEpochMilli(u.getNextCheckMillis()))
+                    .latestMood(moodOrNull(u.getMoodCurrent()))
+                    .streak(streaksOf(u))
+                    .hidden(u.getHiddenItems())
+                    .build();
+        }, UserSummary.builder().limit(limitOf(0)).streak(Streaks.NONE).hidden(OrdinalBitmap.EMPTY).build());
+    }
+
+    /** Read before the data they tag: a change in between only makes the tag older than the data. */
+    @Override
+    public UserVersions versions(String userId) {
+        return new UserVersions(versions.calendarTag(userId), versions.streakTag(userId, clock.millis()), versions.hiddenTag(userId));
+    }
+
+    // the user arrived or left whole: every tag handed out for it is void
+    private void changed(String userId) {
+        versions.daysChanged(userId);
+        versions.hiddenChanged(userId);
+    }
+
+    /**
+     * Resident footprint: estimated bytes per user from a sample of up to
+     * MEMORY_SAMPLE users (state plus its map entry), projected to 1M and 10M users.
+     */
+    public Map<String, Object> memoryReport() {
+        long sampled = 0, bytes = 0;
+        for (UserState u : users.values()) {
+            if (sampled == MEMORY_SAMPLE) break;
+            bytes += u.estimatedBytes() + MAP_ENTRY_BYTES;
+            sampled++;
+        }
+        long perUser = sampled == 0 ? new UserState("user-0000000", 0).estimatedBytes() + MAP_ENTRY_BYTES : bytes / sampled;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("residentUsers", users.size());
+        report.put("sampledUsers", sampled);
+        report.put("bytesPerUser", perUser);
+        report.put("projected1M", perUser * 1_000_000L);
+        report.put("projected10M", perUser * 10_000_000L);
+        long faulted = faults.sum();
+        report.put("coldUsers", cold.size());
+        report.put("coldFileBytes", cold.fileBytes());
+        report.put("hits", hits.sum());
+        report.put("faults", faulted);
+        report.put("misses", misses.sum());
+        report.put("evictions", evictions.sum());
+        report.put("avgFaultMicros", faulted == 0 ? 0 : faultNanos.sum() / faulted / 1000);
+        report.put("maxFaultMicros", maxFaultNanos.get() / 1000);
+        report.put("handoffsIn", handoffsIn.sum());
+        report.put("handoffsOut", handoffsOut.sum());
+        report.put("pendingChecks", checkTimers.size());
+        report.put("checksPushed", checksPushed.sum());
+        return report;
+    }
+
+    /**
+     * {@link #memoryReport()} plus, for a user on heap here, its estimated bytes
+     * and hidden items. Only looks at the heap: never faults the user in or
+     * pulls it from another node.
+     */
+    public Map<String, Object> memoryReport(String userId) {
+        Map<String, Object> report = memoryReport();
+        if (userId == null) return report;
+        synchronized (lockFor(userId)) {
+            UserState u = users.get(userId);
+            if (u != null) {
+                report.put("userBytes", u.estimatedBytes());
+                report.put("hiddenItems", u.getHiddenItems().cardinality());
+                report.put("hiddenBytes", u.getHiddenItems().sizeInBytes());
+            }
+        }
+        return report;
+    }
+
+    /** Reads from the user's state under its stripe, faulting it in if cold; null if unknown. */
+    <T> T inspect(String userId, Function<UserState, T> read) {
+        return readUser(userId, read, null);
     }
 
-    public Map<LocalDate, DaySummary> calendar(String userId) {
-        return getOrCreate(userId).getCalendar();
+    // moods are 1..5; anything else is clamped into range
+    private static byte mood(int mood) {
+        return (byte) Math.max(MIN_MOOD, Math.min(MAX_MOOD, mood));
     }
 
-    public int goodMoodStreak(String userId) {
-        return getOrCreate(userId).getGoodMoodStreakDays();
+    private static Integer moodOrNull(byte mood) {
+        return mood == UserState.NO_MOOD ? null : (int) mood;
     }
 }
@@ -0,0 +1,77 @@
+// src/main/java/com/moodrise/service/UserStore.java
+package com.moodrise.service;
+
+import com.moodrise.dto.LimitStatus;
+import com.moodrise.dto.SessionSummary;
+import com.moodrise.dto.Streaks;
+import com.moodrise.dto.UserSummary;
+import com.moodrise.dto.UserVersions;
+import com.moodrise.model.DaySummary;
+import com.moodrise.model.OrdinalBitmap;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Per-user operations behind the API. {@link UserService} keeps users in this
+ * process; {@link PartitionedUserStore} spreads them over several nodes.
+ * Writes create unknown users, reads see defaults for them.
+ */
+public interface UserStore {
+
+    /** Longest user id accepted, in UTF-8 bytes. */
+    int MAX_USER_ID_BYTES = 256;
+
+    /** Rejects a missing or oversized user id with a 400 before anything about it is stored or logged. */
+    static String checkUserId(String userId) {
+        if (userId == null || userId.isEmpty() || userId.length() > MAX_USER_ID_BYTES
+                || (userId.length() * 3 > MAX_USER_ID_BYTES && userId.getBytes(StandardCharsets.UTF_8).length > MAX_USER_ID_BYTES)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId must be 1 to " + MAX_USER_ID_BYTES + " bytes");
+        }
+        return userId;
+    }
+
+    /** Starts a session; a non-null IANA {@code zone} becomes where the user's days roll over. */
+    void startSession(String userId, int moodStart, String zone);
+
+    void moodCheck(String userId, int mood);
+
+    SessionSummary endSession(String userId, int moodEnd);
+
+    /** Counts activity time for a known user; unknown users are not created. */
+    void recordInteraction(String userId);
+
+    /** Hides a content item for the user; unknown items only count as activity. */
+    void hide(String userId, String itemId);
+
+    LimitStatus limitStatus(String userId);
+
+    Instant nextCheckTs(String userId);
+
+    Integer latestMood(String userId);
+
+    /** Hidden items as ordinals of this node's catalog (see ContentService.ordinal). */
+    OrdinalBitmap hidden(String userId);
+
+    /** Recorded days in [from, to] in date order; a null bound means that end of the history. */
+    Map<LocalDate, DaySummary> calendar(String userId, LocalDate from, LocalDate to);
+
+    /** Current and longest good-mood streaks (days ending with mood >= 4). */
+    Streaks streaks(String userId);
+
+    /** Limit, next check, mood, streaks and hidden items in one load; counts as activity. */
+    UserSummary summary(String userId);
+
+    /** Change tags for conditional reads; never loads the user. */
+    UserVersions versions(String userId);
+
+    /** Base URL of the node that owns the user and pushes its events, or null if that is this node. */
+    default String remoteOwner(String userId) {
+        return null;
+    }
+}
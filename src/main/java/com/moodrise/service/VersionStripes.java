@@ -0,0 +1,89 @@
+// src/main/java/com/moodrise/service/VersionStripes.java
+package com.moodrise.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user change counters for ETags, striped by user id so checking a tag
+ * never loads or locks a user: a stripe-mate's change shows as a spurious
+ * change, never a missed one. Tags carry a per-process prefix, so none
+ * survives a restart or a move to another node.
+ */
+final class VersionStripes {
+
+    private static final int MIN_STRIPES = 1 << 16;
+    private static final int MAX_STRIPES = 1 << 22;             // 32 bytes each: 128 MB
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final int mask;
+    private final AtomicLongArray days;         // calendar days and moods
+    private final AtomicLongArray usage;        // calendar usage, by the minute
+    private final AtomicLongArray hidden;       // hidden items only
+    private final AtomicLongArray until;        // millis the stripe's streak tags expire
+
+    VersionStripes(int stripes) {
+        if (Integer.bitCount(stripes) != 1) throw new IllegalArgumentException("stripes must be a power of two");
+        this.mask = stripes - 1;
+        this.days = new AtomicLongArray(stripes);
+        this.usage = new AtomicLongArray(stripes);
+        this.hidden = new AtomicLongArray(stripes);
+        this.until = new AtomicLongArray(stripes);
+    }
+
+    /** Stripe count for {@code users} users: the power of two at or above it, within 2^16..2^22. */
+    static int sizeFor(int users) {
+        // clamped before the shift, which would wrap negative past 2^30
+        int n = Integer.highestOneBit(Math.min(Math.max(users - 1, 1), MAX_STRIPES - 1)) << 1;
+        return Math.max(MIN_STRIPES, n);
+    }
+
+    void daysChanged(String userId) {
+        days.incrementAndGet(stripe(userId));
+    }
+
+    void usageChanged(String userId) {
+        usage.incrementAndGet(stripe(userId));
+    }
+
+    void hiddenChanged(String userId) {
+        hidden.incrementAndGet(stripe(userId));
+    }
+
+    String calendarTag(String userId) {
+        int i = stripe(userId);
+        return epoch + "-" + Long.toHexString(days.get(i)) + "." + Long.toHexString(usage.get(i));
+    }
+
+    /** Null once a user of the stripe may have started a new day since the last streak read. */
+    String streakTag(String userId, long now) {
+        int i = stripe(userId);
+        // bound first: a reset bumps the version before it moves the bound
+        if (until.get(i) <= now) return null;
+        return epoch + "-" + Long.toHexString(days.get(i));
+    }
+
+    String hiddenTag(String userId) {
+        return epoch + "-" + Long.toHexString(hidden.get(stripe(userId)));
+    }
+
+    /** Records that the user's current day ends at {@code dayEnd}; called by each streak read. */
+    void validUntil(String userId, long dayEnd, long now) {
+        int i = stripe(userId);
+        for (;;) {
+            long u = until.get(i);
+            if (u <= now) {
+                // tags handed out under the old bound must not outlive it
+                days.incrementAndGet(i);
+                if (until.compareAndSet(i, u, dayEnd)) return;
+            } else if (dayEnd >= u || until.compareAndSet(i, u, dayEnd)) {
+                return;
+            }
+        }
+    }
+
+    private int stripe(String userId) {
+        int h = userId.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,35 @@
+// src/test/java/com/moodrise/AppTest.java
+package com.moodrise;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Base for tests against the whole application. Each context gets a data
+ * directory of its own under target/test-data, left in place: contexts are
+ * cached across test classes, so they can outlive any one class's temp dir.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public abstract class AppTest {
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        Path dir = newDataDir();
+        registry.add("moodrise.data.dir", dir::toString);
+    }
+
+    /** A fresh, empty directory under target/test-data. */
+    public static Path newDataDir() {
+        try {
+            return Files.createTempDirectory(Files.createDirectories(Path.of("target", "test-data")), "data");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
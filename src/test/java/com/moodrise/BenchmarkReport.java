@@ -0,0 +1,37 @@
+// src/test/java/com/moodrise/BenchmarkReport.java
+package com.moodrise;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Results of one benchmark, written to target/benchmarks/{@code <name>}.txt
+ * and the log when closed, so each -Pbenchmarks run leaves a record to compare.
+ */
+@Slf4j
+public final class BenchmarkReport implements AutoCloseable {
+
+    private final String name;
+    private final List<String> rows = new ArrayList<>();
+
+    public BenchmarkReport(String name) {
+        this.name = name;
+    }
+
+    public void row(String format, Object... args) {
+        rows.add(String.format(Locale.ROOT, format, args));
+    }
+
+    @Override
+    public void close() throws IOException {
+        Path dir = Files.createDirectories(Path.of("target", "benchmarks"));
+        Files.write(dir.resolve(name + ".txt"), rows);
+        log.info("{}{}{}", name, System.lineSeparator(), String.join(System.lineSeparator(), rows));
+    }
+}
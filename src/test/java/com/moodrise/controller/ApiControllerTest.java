@@ -0,0 +1,188 @@
+// src/test/java/com/moodrise/controller/ApiControllerTest.java
+package com.moodrise.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrise.AppTest;
+import com.moodrise.service.DayClock;
+import com.moodrise.service.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The API over MockMvc, on a clock the test moves: request bounds checked
+ * before any work is done, conditional GETs answered 304 until something the
+ * response shows has changed, and /bootstrap showing what each endpoint does.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(ApiControllerTest.Clocks.class)
+class ApiControllerTest extends AppTest {
+
+    private static final MutableClock TIME = new MutableClock(Instant.parse("2026-03-10T12:00:00Z"), ZoneOffset.UTC);
+
+    @TestConfiguration
+    static class Clocks {
+        @Bean
+        @Primary
+        DayClock testDayClock() {
+            return new DayClock(TIME);
+        }
+    }
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ObjectMapper mapper;
+
+    @Test
+    void pagesAreBounded() throws Exception {
+        mvc.perform(get("/api/content?userId=api-limit&mood=3&tab=Laugh&limit=100")).andExpect(status().isOk());
+        mvc.perform(get("/api/content?userId=api-limit&mood=3&tab=Laugh&limit=2147483647")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/bootstrap?userId=api-limit&tab=Laugh&limit=2147483647")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unchangedReadsAnswer304() throws Exception {
+        startSession("etag-same");
+        for (String path : new String[] {calendar("etag-same"), streak("etag-same"), feed("etag-same")}) {
+            String tag = tagOf(path);
+            MockHttpServletResponse again = mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, tag))
+                    .andExpect(status().isNotModified()).andReturn().getResponse();
+            assertThat(again.getHeader(HttpHeaders.ETAG)).as(path).isEqualTo(tag);
+            assertThat(again.getHeaders(HttpHeaders.VARY)).as(path).contains(HttpHeaders.ACCEPT);
+            assertThat(again.getContentLength()).isZero();
+        }
+    }
+
+    @Test
+    void hideAndFeedbackChangeTheFeedTag() throws Exception {
+        startSession("etag-feed");
+        String before = tagOf(feed("etag-feed"));
+        send("/api/hide", "{\"userId\":\"etag-feed\",\"itemId\":\"laugh_01\"}");
+        String hidden = changedTag(feed("etag-feed"), before);
+
+        send("/api/feedback", "{\"userId\":\"etag-feed\",\"itemId\":\"mot_01\",\"reaction\":\"smile\"}");
+        Thread.sleep(100);   // past the merge interval, so the feed's ranking has moved
+        changedTag(feed("etag-feed"), hidden);
+        send("/api/feedback", "{\"userId\":\"etag-feed\",\"itemId\":\"mot_01\",\"reaction\":\"sad\"}");
+    }
+
+    @Test
+    void endingTheSessionChangesTheCalendarAndStreakTags() throws Exception {
+        startSession("etag-end");
+        String calendar = tagOf(calendar("etag-end"));
+        String streak = tagOf(streak("etag-end"));
+        send("/api/session/end", "{\"userId\":\"etag-end\",\"moodEnd\":5}");
+        changedTag(calendar("etag-end"), calendar);
+        changedTag(streak("etag-end"), streak);
+    }
+
+    @Test
+    void streakTagExpiresAtTheEndOfTheDay() throws Exception {
+        TIME.set(Instant.parse("2026-03-10T12:00:00Z"));
+        startSession("etag-day");
+        String tag = tagOf(streak("etag-day"));
+        TIME.set(Instant.parse("2026-03-10T23:59:00Z"));
+        mvc.perform(get(streak("etag-day")).header(HttpHeaders.IF_NONE_MATCH, tag)).andExpect(status().isNotModified());
+        // the streak may have broken at midnight, though nothing was recorded
+        TIME.set(Instant.parse("2026-03-11T00:00:01Z"));
+        mvc.perform(get(streak("etag-day")).header(HttpHeaders.IF_NONE_MATCH, tag)).andExpect(status().isOk());
+        TIME.advance(Duration.ofMinutes(1));
+        assertThat(tagOf(streak("etag-day"))).isNotEqualTo(tag);
+    }
+
+    @Test
+    void bootstrapShowsWhatEachEndpointDoes() throws Exception {
+        startSession("boot");
+        send("/api/hide", "{\"userId\":\"boot\",\"itemId\":\"mot_01\"}");
+        MockHttpServletResponse response = mvc.perform(get("/api/bootstrap?userId=boot&tab=Motivate&limit=3"))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        JsonNode boot = mapper.readTree(response.getContentAsByteArray());
+
+        assertThat(boot.get("latestMood").asInt()).isEqualTo(2);
+        assertThat(boot.get("nextCheckTs")).isEqualTo(read("/api/session/next-check?userId=boot").get("nextCheckTs"));
+        assertThat(boot.get("limit")).isEqualTo(read("/api/limit/status?userId=boot"));
+        assertThat(boot.get("streak")).isEqualTo(read(streak("boot")));
+        // tips are picked at random on each read
+        assertThat(boot.get("reminders")).hasSameSizeAs(read("/api/notifications/today?userId=boot"));
+
+        // the first page as /content writes it, items copied in as encoded
+        String page = mvc.perform(get(feed("boot") + "&limit=3")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(boot.get("content")).isEqualTo(mapper.readTree(page));
+        assertThat(response.getContentAsString()).contains("\"content\":" + page);
+        // and a cursor that goes on from it
+        Set<String> seen = new HashSet<>();
+        boot.get("content").forEach(item -> seen.add(item.get("id").asText()));
+        assertThat(seen).hasSize(3).doesNotContain("mot_01");
+        read(feed("boot") + "&limit=3&cursor=" + boot.get("nextCursor").asText())
+                .forEach(item -> assertThat(seen.add(item.get("id").asText())).isTrue());
+    }
+
+    private JsonNode read(String path) throws Exception {
+        return mapper.readTree(mvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray());
+    }
+
+    private void startSession(String userId) throws Exception {
+        send("/api/session/start", "{\"userId\":\"" + userId + "\",\"moodStart\":2,\"timezone\":\"UTC\"}");
+    }
+
+    private void send(String path, String body) throws Exception {
+        mvc.perform(post(path)
+                .contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isOk());
+    }
+
+    // the tag of a 200; a streak read fixes the day its tag holds for, so the first may have none
+    private String tagOf(String path) throws Exception {
+        String tag = null;
+        for (int i = 0; i < 2 && tag == null; i++) {
+            MockHttpServletResponse r = mvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse();
+            assertThat(r.getHeaders(HttpHeaders.VARY)).as(path).contains(HttpHeaders.ACCEPT);
+            tag = r.getHeader(HttpHeaders.ETAG);
+        }
+        assertThat(tag).as(path).isNotNull();
+        return tag;
+    }
+
+    // a full response for the old tag, with a new one
+    private String changedTag(String path, String old) throws Exception {
+        MockHttpServletResponse r = mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, old))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        assertThat(r.getHeader(HttpHeaders.ETAG)).as(path).isNotNull().isNotEqualTo(old);
+        return r.getHeader(HttpHeaders.ETAG);
+    }
+
+    private static String calendar(String userId) {
+        return "/api/calendar?userId=" + userId;
+    }
+
+    private static String streak(String userId) {
+        return "/api/calendar/streak?userId=" + userId;
+    }
+
+    private static String feed(String userId) {
+        return "/api/content?userId=" + userId + "&mood=2&tab=Motivate";
+    }
+}
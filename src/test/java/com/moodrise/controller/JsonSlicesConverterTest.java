@@ -0,0 +1,94 @@
+// src/test/java/com/moodrise/controller/JsonSlicesConverterTest.java
+package com.moodrise.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.dto.FeedPage;
+import com.moodrise.dto.JsonSlices;
+import com.moodrise.model.Category;
+import com.moodrise.model.OrdinalBitmap;
+import com.moodrise.service.ContentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feed pages written from the slices encoded at catalog load must read the
+ * same as Jackson serializing the items; the benchmark compares the bytes
+ * each way allocates per page.
+ */
+class JsonSlicesConverterTest extends AppTest {
+
+    @Autowired
+    ContentService content;
+    @Autowired
+    ObjectMapper mapper;
+
+    private final JsonSlicesConverter slices = new JsonSlicesConverter();
+
+    @Test
+    void writesWhatJacksonWould() throws Exception {
+        FeedPage page = content.page(2, Category.Laugh, 9, OrdinalBitmap.EMPTY, null);
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        slices.write(new JsonSlices(page.getJson(), page.getItems()), MediaType.APPLICATION_JSON, out);
+
+        byte[] body = out.getBodyAsBytes();
+        assertThat(mapper.readTree(body)).isEqualTo(mapper.valueToTree(page.getItems()));
+        assertThat(out.getHeaders().getContentLength()).isEqualTo(body.length);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void bytesAllocatedPerPage() throws Exception {
+        MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter(mapper);
+        FeedPage page = content.page(2, Category.Laugh, 9, OrdinalBitmap.EMPTY, null);
+        JsonSlices body = new JsonSlices(page.getJson(), page.getItems());
+        int writes = 200_000;
+        // one message each: its headers are set on the first write, so later ones count the body alone
+        Discard toJackson = new Discard(), toSlices = new Discard();
+        long viaJackson = 0, viaSlices = 0;
+        for (int pass = 0; pass < 2; pass++) {   // the first pass warms up
+            long before = allocated();
+            for (int i = 0; i < writes; i++) jackson.write(page.getItems(), MediaType.APPLICATION_JSON, toJackson);
+            viaJackson = (allocated() - before) / writes;
+            before = allocated();
+            for (int i = 0; i < writes; i++) slices.write(body, MediaType.APPLICATION_JSON, toSlices);
+            viaSlices = (allocated() - before) / writes;
+        }
+        try (BenchmarkReport report = new BenchmarkReport("content-serialization")) {
+            report.row("%d items, bytes allocated per page: Jackson %d, slices %d", page.getItems().size(), viaJackson, viaSlices);
+        }
+        // the slices are copied as they are; only the write itself should allocate
+        assertThat(viaSlices).isLessThan(viaJackson / 2);
+    }
+
+    private static long allocated() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // a response whose body goes nowhere, so only serializing allocates
+    private static final class Discard implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+// src/test/java/com/moodrise/controller/WireFormatsTest.java
+package com.moodrise.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.model.CalendarStore;
+import com.moodrise.model.Category;
+import com.moodrise.model.DaySummary;
+import com.moodrise.model.OrdinalBitmap;
+import com.moodrise.service.ContentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * CBOR and Smile carry the same response as JSON, picked by Accept; the
+ * benchmark measures each format's size and encoding time for a feed page
+ * and a year of calendar.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WireFormatsTest extends AppTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ObjectMapper json;
+    @Autowired
+    ObjectProvider<Jackson2ObjectMapperBuilder> builder;
+    @Autowired
+    ContentService content;
+
+    @Test
+    void calendarAndFeedInEveryFormat() throws Exception {
+        mvc.perform(post("/api/session/start").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":\"wire\",\"moodStart\":2}")).andReturn();
+        ObjectMapper cbor = mapper(new CBORFactory()), smile = mapper(new SmileFactory());
+        for (String path : new String[]{"/api/calendar?userId=wire", "/api/content?userId=wire&mood=2&tab=Laugh"}) {
+            MockHttpServletResponse asJson = fetch(path, MediaType.APPLICATION_JSON);
+            MockHttpServletResponse asCbor = fetch(path, CBOR);
+            MockHttpServletResponse asSmile = fetch(path, SMILE);
+            JsonNode expected = json.readTree(asJson.getContentAsByteArray());
+            assertThat(MediaType.parseMediaType(asCbor.getContentType()).isCompatibleWith(CBOR)).as(path).isTrue();
+            assertThat(MediaType.parseMediaType(asSmile.getContentType()).isCompatibleWith(SMILE)).as(path).isTrue();
+            assertThat(cbor.readTree(asCbor.getContentAsByteArray())).as(path + " as CBOR").isEqualTo(expected);
+            assertThat(smile.readTree(asSmile.getContentAsByteArray())).as(path + " as Smile").isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void bootstrapPageInEveryFormat() throws Exception {
+        String path = "/api/bootstrap?userId=wire-boot&mood=2&tab=Laugh";
+        JsonNode expected = json.readTree(fetch(path, MediaType.APPLICATION_JSON).getContentAsByteArray()).get("content");
+        // the page is copied in as encoded JSON; the binary formats serialize the items
+        JsonNode asCbor = mapper(new CBORFactory()).readTree(fetch(path, CBOR).getContentAsByteArray());
+        JsonNode asSmile = mapper(new SmileFactory()).readTree(fetch(path, SMILE).getContentAsByteArray());
+        assertThat(asCbor.get("content")).isEqualTo(expected);
+        assertThat(asSmile.get("content")).isEqualTo(expected);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void sizeAndEncodingTime() throws Exception {
+        Object feed = content.page(2, Category.Laugh, 10, OrdinalBitmap.EMPTY, null).getItems();
+        Object calendar = yearOfCalendar();
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("JSON", json);
+        formats.put("CBOR", mapper(new CBORFactory()));
+        formats.put("Smile", mapper(new SmileFactory()));
+        Map<String, Object> bodies = new LinkedHashMap<>();
+        bodies.put("feed page", feed);
+        bodies.put("365-day calendar", calendar);
+        try (BenchmarkReport report = new BenchmarkReport("wire-formats")) {
+            for (Map.Entry<String, Object> body : bodies.entrySet()) {
+                int jsonSize = json.writeValueAsBytes(body.getValue()).length;
+                for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                    ObjectMapper mapper = format.getValue();
+                    int size = mapper.writeValueAsBytes(body.getValue()).length;
+                    int writes = 20_000;
+                    for (int i = 0; i < writes; i++) mapper.writeValueAsBytes(body.getValue());
+                    long started = System.nanoTime();
+                    for (int i = 0; i < writes; i++) mapper.writeValueAsBytes(body.getValue());
+                    double micros = (System.nanoTime() - started) / 1e3 / writes;
+                    report.row("%-16s %-5s %7d bytes %8.2f us", body.getKey(), format.getKey(), size, micros);
+                    // the binary formats exist to be smaller on the wire
+                    assertThat(size).as(body.getKey() + " as " + format.getKey()).isLessThanOrEqualTo(jsonSize);
+                }
+            }
+        }
+    }
+
+    private MockHttpServletResponse fetch(String path, MediaType accept) throws Exception {
+        MockHttpServletResponse res = mvc.perform(get(path).accept(accept)).andReturn().getResponse();
+        assertThat(res.getStatus()).as(path + " as " + accept).isEqualTo(200);
+        return res;
+    }
+
+    // built as WireFormats builds its converters
+    private ObjectMapper mapper(com.fasterxml.jackson.core.JsonFactory factory) {
+        return builder.getObject().factory(factory).build();
+    }
+
+    private static Map<LocalDate, DaySummary> yearOfCalendar() {
+        CalendarStore calendar = new CalendarStore();
+        Random random = new Random(1);
+        int today = (int) LocalDate.of(2026, 1, 1).toEpochDay();
+        for (int day = today - 364; day <= today; day++) {
+            calendar.open(day, 1 + random.nextInt(5), 1 + random.nextInt(5));
+            calendar.setUsageSeconds(day, random.nextInt(3600));
+        }
+        Map<LocalDate, DaySummary> days = new LinkedHashMap<>();
+        calendar.forEachDay(today - 364, today, d -> days.put(LocalDate.ofEpochDay(d), calendar.summary(d)));
+        return days;
+    }
+}
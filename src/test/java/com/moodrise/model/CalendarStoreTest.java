@@ -0,0 +1,131 @@
+// src/test/java/com/moodrise/model/CalendarStoreTest.java
+package com.moodrise.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The packed day columns: days recorded out of order grow either end, gaps
+ * stay unrecorded, moods and usage keep to their bits, and a stored history
+ * reads back the same, streaks included.
+ */
+class CalendarStoreTest {
+
+    private static final int DAY = 20_500;   // an epoch day in 2026
+
+    @Test
+    void recordsDaysOnEitherSideOfTheFirst() {
+        CalendarStore c = new CalendarStore();
+        assertThat(c.isEmpty()).isTrue();
+        c.open(DAY, 3, 0);
+        c.open(DAY + 40, 0, 5);
+        c.open(DAY - 70, 2, 4);
+
+        assertThat(c.firstDay()).isEqualTo(DAY - 70);
+        assertThat(c.lastDay()).isEqualTo(DAY + 40);
+        assertThat(c.has(DAY - 1)).as("gap").isFalse();
+        assertThat(c.moodStart(DAY)).isEqualTo(3);
+        assertThat(c.moodEnd(DAY)).isZero();
+        assertThat(c.moodEnd(DAY + 40)).isEqualTo(5);
+        assertThat(c.moodStart(DAY - 70)).isEqualTo(2);
+        assertThat(c.moodEnd(DAY - 70)).isEqualTo(4);
+        assertThat(c.summary(DAY - 1)).isNull();
+        assertThat(c.summary(DAY).getMoodEnd()).isNull();
+    }
+
+    @Test
+    void moodsAndUsageKeepToTheirBits() {
+        CalendarStore c = new CalendarStore();
+        c.open(DAY, 1, 0);
+        c.setMoodEnd(DAY, 5);
+        c.setMoodStart(DAY, 4);
+        c.setUsageSeconds(DAY, 3_600);
+        assertThat(c.moodStart(DAY)).isEqualTo(4);
+        assertThat(c.moodEnd(DAY)).isEqualTo(5);
+        assertThat(c.usageSeconds(DAY)).isEqualTo(3_600);
+        assertThat(c.summary(DAY).getUsageMillis()).isEqualTo(3_600_000L);
+
+        c.setUsageSeconds(DAY, 1_000_000);
+        assertThat(c.usageSeconds(DAY)).as("clamped to a char").isEqualTo(0xFFFF);
+        c.setUsageSeconds(DAY, -5);
+        assertThat(c.usageSeconds(DAY)).isZero();
+    }
+
+    @Test
+    void openKeepsARecordedDayAndEditsCountDayChangesOnly() {
+        CalendarStore c = new CalendarStore();
+        c.open(DAY, 2, 0);
+        c.open(DAY, 5, 5);
+        assertThat(c.moodStart(DAY)).as("already recorded").isEqualTo(2);
+        assertThat(c.edits()).isEqualTo(1);
+
+        c.setUsageSeconds(DAY, 60);
+        assertThat(c.edits()).as("usage of a recorded day").isEqualTo(1);
+        c.setUsageSeconds(DAY + 1, 60);
+        assertThat(c.edits()).as("usage recording a new day").isEqualTo(2);
+        c.setMoodEnd(DAY, 4);
+        assertThat(c.edits()).isEqualTo(3);
+    }
+
+    @Test
+    void forEachDayVisitsRecordedDaysInRangeInOrder() {
+        CalendarStore c = new CalendarStore();
+        for (int d : new int[] {DAY + 9, DAY, DAY + 3, DAY + 5}) c.open(d, 3, 3);
+        List<Integer> seen = new ArrayList<>();
+        c.forEachDay(DAY + 1, DAY + 9, seen::add);
+        assertThat(seen).containsExactly(DAY + 3, DAY + 5, DAY + 9);
+
+        seen.clear();
+        c.forEachDay(Integer.MIN_VALUE, Integer.MAX_VALUE, seen::add);
+        assertThat(seen).containsExactly(DAY, DAY + 3, DAY + 5, DAY + 9);
+        seen.clear();
+        c.forEachDay(DAY + 10, DAY + 20, seen::add);
+        assertThat(seen).isEmpty();
+    }
+
+    @Test
+    void streaksFollowEndMoods() {
+        CalendarStore c = new CalendarStore();
+        for (int d = 0; d < 5; d++) c.open(DAY + d, 3, 4);
+        assertThat(c.currentStreak(DAY + 4)).isEqualTo(5);
+        assertThat(c.currentStreak(DAY + 5)).as("today open").isEqualTo(5);
+        c.setMoodEnd(DAY + 2, 2);
+        assertThat(c.currentStreak(DAY + 4)).isEqualTo(2);
+        assertThat(c.longestStreak()).isEqualTo(2);
+        c.open(DAY + 5, 3, 1);
+        assertThat(c.currentStreak(DAY + 5)).isZero();
+    }
+
+    @Test
+    void storedHistoryReadsBackTheSame() throws IOException {
+        Random random = new Random(14);
+        CalendarStore c = new CalendarStore();
+        for (int i = 0; i < 300; i++) {
+            int day = DAY + random.nextInt(400) - 200;
+            c.open(day, 1 + random.nextInt(5), random.nextInt(6));
+            c.setUsageSeconds(day, random.nextInt(3_600));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        c.writeTo(new DataOutputStream(bytes));
+        CalendarStore read = CalendarStore.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.firstDay()).isEqualTo(c.firstDay());
+        assertThat(read.lastDay()).isEqualTo(c.lastDay());
+        for (int d = c.firstDay() - 1; d <= c.lastDay() + 1; d++) {
+            assertThat(read.has(d)).as("day " + d).isEqualTo(c.has(d));
+            assertThat(read.moodStart(d)).isEqualTo(c.moodStart(d));
+            assertThat(read.moodEnd(d)).isEqualTo(c.moodEnd(d));
+            assertThat(read.usageSeconds(d)).isEqualTo(c.usageSeconds(d));
+        }
+        assertThat(read.longestStreak()).isEqualTo(c.longestStreak());
+        assertThat(read.currentStreak(c.lastDay())).isEqualTo(c.currentStreak(c.lastDay()));
+        assertThat(read.edits()).as("counted from load").isZero();
+    }
+}
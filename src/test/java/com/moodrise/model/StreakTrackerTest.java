@@ -0,0 +1,91 @@
+// src/test/java/com/moodrise/model/StreakTrackerTest.java
+package com.moodrise.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streaks kept incrementally against a plain walk over the same good days:
+ * days set and cleared in any order, late and backfilled, across word
+ * boundaries and on either side of the first day seen.
+ */
+class StreakTrackerTest {
+
+    private static final int DAY = 20_480;   // a multiple of 64, so runs cross word boundaries
+
+    @Test
+    void runsAcrossWordBoundaries() {
+        StreakTracker s = new StreakTracker();
+        for (int d = DAY - 10; d < DAY + 70; d++) s.update(d, true);
+        assertThat(s.longest()).isEqualTo(80);
+        assertThat(s.current(DAY + 69, false)).isEqualTo(80);
+        assertThat(s.current(DAY + 70, true)).as("today open").isEqualTo(80);
+        assertThat(s.current(DAY + 70, false)).isZero();
+        assertThat(s.current(DAY + 71, true)).as("a day missed").isZero();
+
+        s.update(DAY, false);
+        assertThat(s.longest()).isEqualTo(69);
+        assertThat(s.current(DAY + 69, false)).isEqualTo(69);
+        s.update(DAY + 69, false);
+        assertThat(s.current(DAY + 68, false)).isEqualTo(68);
+        assertThat(s.longest()).isEqualTo(68);
+    }
+
+    @Test
+    void clearingTheLatestRunFallsBackToTheOneBefore() {
+        StreakTracker s = new StreakTracker();
+        for (int d = 0; d < 3; d++) s.update(DAY + d, true);
+        s.update(DAY + 10, true);
+        assertThat(s.current(DAY + 10, false)).isEqualTo(1);
+        s.update(DAY + 10, false);
+        assertThat(s.current(DAY + 2, false)).isEqualTo(3);
+        for (int d = 0; d < 3; d++) s.update(DAY + d, false);
+        assertThat(s.longest()).isZero();
+        assertThat(s.current(DAY + 2, false)).isZero();
+    }
+
+    @Test
+    void randomUpdatesMatchAWalkOverTheDays() {
+        Random random = new Random(15);
+        for (int round = 0; round < 200; round++) {
+            StreakTracker s = new StreakTracker();
+            BitSet good = new BitSet();
+            int span = 32 + random.nextInt(400);
+            int first = random.nextInt(span);   // days before the first one seen come later
+            s.update(DAY + first, true);
+            good.set(first);
+            for (int i = 0; i < 3 * span; i++) {
+                int d = random.nextInt(span);
+                // mostly good days, so long runs form and then break
+                boolean g = random.nextInt(5) != 0;
+                s.update(DAY + d, g);
+                good.set(d, g);
+
+                assertThat(s.longest()).as("longest after %d updates", i).isEqualTo(longest(good));
+                int today = random.nextInt(span + 2);
+                boolean open = random.nextBoolean();
+                assertThat(s.current(DAY + today, open)).as("current on %d, open %s", today, open)
+                        .isEqualTo(current(good, today, open));
+            }
+        }
+    }
+
+    private static int longest(BitSet good) {
+        int best = 0;
+        for (int s = good.nextSetBit(0); s >= 0; s = good.nextSetBit(good.nextClearBit(s))) {
+            best = Math.max(best, good.nextClearBit(s) - s);
+        }
+        return best;
+    }
+
+    // the run through the last good day, if it ends today or yesterday with today open
+    private static int current(BitSet good, int today, boolean todayOpen) {
+        int last = good.length() - 1;
+        if (last < 0 || !(last == today || (last == today - 1 && todayOpen))) return 0;
+        return last - good.previousClearBit(last);
+    }
+}
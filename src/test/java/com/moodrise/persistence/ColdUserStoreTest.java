@@ -0,0 +1,76 @@
+// src/test/java/com/moodrise/persistence/ColdUserStoreTest.java
+package com.moodrise.persistence;
+
+import com.moodrise.AppTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compaction runs a step at a time while users keep coming and going; every
+ * live user must read back intact, and the file must shrink once it settles.
+ */
+class ColdUserStoreTest {
+
+    private final ColdUserStore store = new ColdUserStore();
+
+    @BeforeEach
+    void open() throws Exception {
+        ReflectionTestUtils.setField(store, "dataDir", AppTest.newDataDir().toString());
+        store.open();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void compactsStepByStepWhileUsersComeAndGo() {
+        Random random = new Random(7);
+        Map<String, byte[]> live = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) put(live, "user-" + i, 1_000 + random.nextInt(4_000));
+        // three in four leave: well over a chunk dead and more dead than live
+        for (int i = 0; i < 40_000; i++) if (i % 4 != 0) assertThat(store.take("user-" + i)).isEqualTo(live.remove("user-" + i));
+        long before = store.fileBytes();
+
+        int steps = 0, n = 40_000;
+        while (store.compact()) {
+            steps++;
+            // traffic between steps: new users, replaced states, fault-ins
+            put(live, "user-" + n++, 100 + random.nextInt(2_000));
+            String some = "user-" + 4 * random.nextInt(10_000);
+            if (live.containsKey(some)) put(live, some, 100 + random.nextInt(2_000));
+            String gone = "user-" + 4 * random.nextInt(10_000);
+            assertThat(store.take(gone)).isEqualTo(live.remove(gone));
+        }
+        assertThat(steps).as("steps with traffic in between").isGreaterThan(1);
+        assertThat(store.fileBytes()).isLessThan(before / 2);
+        assertThat(store.size()).isEqualTo(live.size());
+        for (Map.Entry<String, byte[]> e : live.entrySet()) assertThat(store.get(e.getKey())).as(e.getKey()).isEqualTo(e.getValue());
+
+        Set<String> ids = new HashSet<>();
+        long version = store.version();
+        store.forEachId(ids::add);
+        assertThat(store.version()).isEqualTo(version);
+        assertThat(ids).isEqualTo(live.keySet());
+    }
+
+    private void put(Map<String, byte[]> live, String userId, int bytes) {
+        byte[] state = new byte[bytes];
+        Arrays.fill(state, (byte) userId.hashCode());
+        state[0] = (byte) bytes;
+        store.put(userId, state);
+        live.put(userId, state);
+    }
+}
@@ -0,0 +1,70 @@
+// src/test/java/com/moodrise/service/BannedWordMatcherTest.java
+package com.moodrise.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BannedWordMatcherTest {
+
+    private static final String MASK = "•••";
+
+    private static String mask(String text, String... words) {
+        return new BannedWordMatcher(List.of(words)).mask(text, MASK);
+    }
+
+    @Test
+    void masksWholeWordsOnly() {
+        assertThat(mask("ass in class", "ass")).isEqualTo("••• in class");
+        assertThat(mask("assess bass", "ass")).isEqualTo("assess bass");
+        assertThat(mask("bad1 bad_ _bad bad", "bad")).isEqualTo("bad1 bad_ _bad •••");
+    }
+
+    @Test
+    void ignoresCase() {
+        assertThat(mask("Bad BAD bAd", "bad")).isEqualTo("••• ••• •••");
+        assertThat(mask("bad", "BaD")).isEqualTo("•••");
+    }
+
+    @Test
+    void foldsNonAsciiLettersToo() {
+        // the old (?i) regex folded ASCII only, so "ÉCOLE" slipped past "école"
+        assertThat(mask("ÉCOLE École école", "école")).isEqualTo("••• ••• •••");
+    }
+
+    @Test
+    void foldsIndependentlyOfDefaultLocale() {
+        Locale before = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertThat(mask("idiot IDIOT", "IDIOT")).isEqualTo("••• •••");
+        } finally {
+            Locale.setDefault(before);
+        }
+    }
+
+    @Test
+    void masksNestedAndOverlappingWords() {
+        assertThat(mask("hell hello", "hell", "hello")).isEqualTo("••• •••");
+        // the longest word ending at a boundary wins, leaving no stray tail
+        assertThat(mask("a bad word", "word", "bad word")).isEqualTo("a •••");
+        assertThat(mask("abc bcd abcd", "abc", "bcd")).isEqualTo("••• ••• abcd");
+    }
+
+    @Test
+    void masksAdjacentWordsAroundPunctuation() {
+        assertThat(mask("bad,bad!bad", "bad")).isEqualTo("•••,•••!•••");
+        assertThat(mask("(bad) 'ugly'.", "bad", "ugly")).isEqualTo("(•••) '•••'.");
+        assertThat(mask("bad ugly", "bad", "ugly")).isEqualTo("••• •••");
+    }
+
+    @Test
+    void returnsCleanTextItself() {
+        String clean = "nothing to see in this class";
+        assertThat(mask(clean, "ass", "bad")).isSameAs(clean);
+        assertThat(mask("", "bad")).isEmpty();
+    }
+}
@@ -0,0 +1,209 @@
+// src/test/java/com/moodrise/service/ClusterMigrationTest.java
+package com.moodrise.service;
+
+import com.moodrise.BenchmarkReport;
+import com.moodrise.MoodRiseApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Three nodes in one JVM: a third joins two that already hold users. Every
+ * user must end up on exactly one node, its owner, with its state, whether it
+ * was pushed by the rebalance pass or pulled by a read that got there first.
+ * The benchmark runs the same load on one node and on three.
+ */
+class ClusterMigrationTest {
+
+    private static final int USERS = 600;
+    private static final String SECRET = "test-secret";
+    private static final int BENCH_USERS = 10_000;
+    private static final int BENCH_CALLS = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void joiningNodeTakesItsShareWithState() throws Exception {
+        String a = url(freePort()), b = url(freePort()), c = url(freePort());
+        String allowed = a + "," + b + "," + c;
+        ConfigurableApplicationContext na = start(a, a + "," + b, allowed);
+        ConfigurableApplicationContext nb = start(b, a + "," + b, allowed);
+        ConfigurableApplicationContext nc = start(c, a + "," + b, allowed);
+
+        UserStore viaA = na.getBean(UserStore.class);
+        for (int i = 0; i < USERS; i++) {
+            viaA.startSession("u" + i, 1 + i % 5, null);
+            if (i % 2 == 0) viaA.hide("u" + i, "laugh_03");
+        }
+        assertThat(local(nc).userIds()).isEmpty();
+
+        na.getBean(PartitionedUserStore.class).broadcast(List.of(a, b, c));
+
+        // read through the new node while the old ones are still pushing users away
+        UserStore viaC = nc.getBean(UserStore.class);
+        ContentService content = nc.getBean(ContentService.class);
+        for (int i = 0; i < USERS; i++) {
+            assertThat(viaC.latestMood("u" + i)).as("mood of u" + i).isEqualTo(1 + i % 5);
+            assertThat(viaC.hidden("u" + i).contains(content.ordinal("laugh_03"))).as("u" + i + " hid laugh_03").isEqualTo(i % 2 == 0);
+        }
+
+        awaitHandoffDone(na, nb, nc);
+        Set<String> seen = new HashSet<>();
+        for (ConfigurableApplicationContext node : nodes) {
+            PartitionedUserStore store = node.getBean(PartitionedUserStore.class);
+            for (String userId : local(node).userIds()) {
+                assertThat(store.remoteOwner(userId)).as(userId + " held by its owner").isNull();
+                assertThat(seen.add(userId)).as(userId + " held once").isTrue();
+            }
+        }
+        assertThat(seen).hasSize(USERS);
+        // about a third each; a wide margin, the ring is hashed
+        assertThat(local(nc).userIds().size()).isBetween(USERS / 6, USERS / 2);
+    }
+
+    @Test
+    void readsThroughAnotherNodeGoToTheOwnerOnce() throws Exception {
+        String a = url(freePort()), b = url(freePort());
+        start(a, a + "," + b, a + "," + b);
+        ConfigurableApplicationContext nb = start(b, a + "," + b, a + "," + b);
+        PartitionedUserStore store = nb.getBean(PartitionedUserStore.class);
+        String userId = "r0";
+        for (int i = 1; store.remoteOwner(userId) != null; i++) userId = "r" + i;
+        store.startSession(userId, 4, null);
+
+        HttpClient http = HttpClient.newHttpClient();
+        for (String path : List.of("/api/content?mood=4&tab=Laugh&limit=3&userId=", "/api/calendar?userId=", "/api/calendar/streak?userId=")) {
+            HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(a + path + userId)).build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(res.statusCode()).as(path).isEqualTo(307);
+            assertThat(res.headers().firstValue("Location")).as(path).hasValue(b + path + userId);
+            res = http.send(HttpRequest.newBuilder(URI.create(res.headers().firstValue("Location").get())).build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(res.statusCode()).as(path + " on the owner").isEqualTo(200);
+        }
+    }
+
+    /**
+     * The same load through one node and through three, each call entering at
+     * a node picked round-robin, as behind a load balancer. All nodes share
+     * this JVM's cores, so three cannot beat one here: the numbers show what
+     * forwarding costs (two calls in three go to another node), not how a
+     * cluster of machines scales, and nothing about scaling is asserted.
+     */
+    @Test
+    @Tag("benchmark")
+    void sameLoadOnOneNodeAndOnThree() throws Exception {
+        try (BenchmarkReport report = new BenchmarkReport("cluster-1-vs-3-nodes")) {
+            int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+            report.row("%d cores, %d client threads, %,d users, %,d calls", Runtime.getRuntime().availableProcessors(),
+                    threads, BENCH_USERS, BENCH_CALLS);
+            for (int size : new int[] {1, 3}) {
+                List<String> urls = new ArrayList<>();
+                for (int i = 0; i < size; i++) urls.add(url(freePort()));
+                String list = String.join(",", urls);
+                List<UserStore> entries = new ArrayList<>();
+                for (String node : urls) entries.add(start(node, list, list).getBean(UserStore.class));
+
+                load(entries, threads, BENCH_CALLS / 10);   // warm-up
+                long started = System.nanoTime();
+                load(entries, threads, BENCH_CALLS);
+                double secs = (System.nanoTime() - started) / 1e9;
+                List<Integer> held = new ArrayList<>();
+                for (ConfigurableApplicationContext node : nodes) held.add(local(node).userIds().size());
+                report.row("%d node%s: %,.0f calls/s, %.1f us per call, users held %s", size, size == 1 ? "" : "s",
+                        BENCH_CALLS / secs, secs * 1e6 * threads / BENCH_CALLS, held);
+
+                nodes.forEach(ConfigurableApplicationContext::close);
+                nodes.clear();
+            }
+        }
+    }
+
+    // per user: start, check, hide, read mood, end; spread over the entry nodes round-robin
+    private static void load(List<UserStore> entries, int threads, int calls) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                done.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < calls / threads; i++) {
+                        UserStore via = entries.get((offset + i) % entries.size());
+                        String userId = "bench-" + random.nextInt(BENCH_USERS);
+                        switch (i % 5) {
+                            case 0 -> via.startSession(userId, 1 + random.nextInt(5), null);
+                            case 1 -> via.moodCheck(userId, 1 + random.nextInt(5));
+                            case 2 -> via.hide(userId, "laugh_0" + (1 + random.nextInt(3)));
+                            case 3 -> via.latestMood(userId);
+                            default -> via.endSession(userId, 1 + random.nextInt(5));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void awaitHandoffDone(ConfigurableApplicationContext... all) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        for (ConfigurableApplicationContext node : all) {
+            while (!local(node).handoffDone()) {
+                assertThat(System.nanoTime()).as("handoff done in time").isLessThan(deadline);
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String self, String nodeList, String allowed) {
+        String name = self.substring(self.lastIndexOf(':') + 1);
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(MoodRiseApplication.class).run(
+                "--server.port=" + name,
+                "--spring.main.banner-mode=off",
+                "--moodrise.data.dir=" + dir.resolve(name),
+                "--moodrise.cluster.self=" + self,
+                "--moodrise.cluster.nodes=" + nodeList,
+                "--moodrise.cluster.allowed-nodes=" + allowed,
+                "--moodrise.cluster.secret=" + SECRET);
+        nodes.add(node);
+        return node;
+    }
+
+    private static UserService local(ConfigurableApplicationContext node) {
+        return node.getBean(UserService.class);
+    }
+
+    private static String url(int port) {
+        return "http://localhost:" + port;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+// src/test/java/com/moodrise/service/ContentServiceFeedTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.dto.FeedPage;
+import com.moodrise.dto.FeedbackEvent;
+import com.moodrise.model.Category;
+import com.moodrise.model.ContentItem;
+import com.moodrise.model.OrdinalBitmap;
+import com.moodrise.model.Reaction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Feed assembly over a generated catalog: the 2:1 tab/backup pattern, scrolls
+ * that never repeat an item while scores move, and a benchmark showing a page costs about the same whatever the catalog size.
+ */
+class ContentServiceFeedTest extends AppTest {
+
+    private static Path catalogFile;
+
+    @DynamicPropertySource
+    static void catalog(DynamicPropertyRegistry registry) {
+        catalogFile = newDataDir().resolve("catalog.jsonl");
+        writeCatalog(catalogFile, 300);
+        registry.add("moodrise.catalog.path", catalogFile::toString);
+    }
+
+    @Autowired
+    ContentService content;
+
+    @Test
+    void twoFromTheTabThenOneFromTheBackup() {
+        // low mood on Educate backs up with Laugh
+        List<ContentItem> feed = content.curated(1, Category.Educate, 12, OrdinalBitmap.EMPTY);
+        assertThat(feed).hasSize(12);
+        for (int i = 0; i < feed.size(); i++) {
+            assertThat(feed.get(i).getCategory()).as("slot " + i).isEqualTo(i % 3 == 2 ? Category.Laugh : Category.Educate);
+        }
+    }
+
+    @Test
+    void pagesContinueWithoutRepeats() {
+        FeedPage first = content.page(3, Category.Laugh, 10, OrdinalBitmap.EMPTY, null);
+        FeedPage second = content.page(3, Category.Laugh, 10, OrdinalBitmap.EMPTY, first.getNextCursor());
+        assertThat(second.getItems()).hasSize(10).doesNotContainAnyElementsOf(first.getItems());
+    }
+
+    @Test
+    void scoresDroppedMidScrollDoNotBringItemsBack() throws InterruptedException {
+        FeedPage first = content.page(2, Category.Motivate, 10, OrdinalBitmap.EMPTY, null);
+        // sink the first page's tab items to the floor, below wherever the cursor stopped
+        List<String> sunk = first.getItems().stream()
+                .filter(i -> i.getCategory() == Category.Motivate).map(ContentItem::getId).toList();
+        for (String id : sunk) for (int i = 0; i < 20; i++) content.applyFeedback(id, Reaction.sad);
+        Thread.sleep(100);   // past the merge interval, so the next page sees the new order
+
+        Set<String> seen = new HashSet<>();
+        first.getItems().forEach(i -> seen.add(i.getId()));
+        int pages = 1;
+        for (String cursor = first.getNextCursor(); cursor != null; pages++) {
+            FeedPage page = content.page(2, Category.Motivate, 10, OrdinalBitmap.EMPTY, cursor);
+            for (ContentItem item : page.getItems()) assertThat(seen.add(item.getId())).as(item.getId() + " on page " + (pages + 1)).isTrue();
+            cursor = page.getNextCursor();
+        }
+        assertThat(pages).isGreaterThan(2);
+        for (String id : sunk) for (int i = 0; i < 20; i++) content.applyFeedback(id, Reaction.smile);
+    }
+
+    @Test
+    void droppedScrollsAreRefusedNotRestarted() {
+        FeedCursor cursor = FeedCursor.decode(content.page(3, Category.Laugh, 10, OrdinalBitmap.EMPTY, null).getNextCursor());
+        String unknown = new FeedCursor(cursor.id() + 1, cursor.page(), cursor.catalogVersion(), cursor.tab(), cursor.backup(),
+                cursor.slot(), cursor.primary(), cursor.backupMark()).encode();
+        assertThatThrownBy(() -> content.page(3, Category.Laugh, 10, OrdinalBitmap.EMPTY, unknown))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batchCountsOnlyItemsWhoseScoreChanged() {
+        int items = content.applyFeedback(List.of(
+                new FeedbackEvent("g0", Reaction.smile), new FeedbackEvent("g0", Reaction.sad),
+                new FeedbackEvent("g1", Reaction.smile), new FeedbackEvent("nope", Reaction.smile)));
+        // g0 cancels out and unknown items are skipped
+        assertThat(items).isEqualTo(1);
+        content.applyFeedback("g1", Reaction.sad);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void pageCostFollowsLimitNotCatalogSize() throws Exception {
+        int[] sizes = {1_000, 10_000, 100_000, 500_000};
+        double[] micros = new double[sizes.length];
+        try (BenchmarkReport report = new BenchmarkReport("feed-vs-catalog-size")) {
+            for (int s = 0; s < sizes.length; s++) {
+                writeCatalog(catalogFile, sizes[s]);
+                content.reloadAsync().get();
+                int calls = 20_000;
+                for (int i = 0; i < calls; i++) content.curated(i % 5 + 1, Category.Laugh, 10, OrdinalBitmap.EMPTY);
+                long started = System.nanoTime();
+                for (int i = 0; i < calls; i++) content.curated(i % 5 + 1, Category.Laugh, 10, OrdinalBitmap.EMPTY);
+                double curated = (System.nanoTime() - started) / 1e3 / calls;
+                started = System.nanoTime();
+                String cursor = null;
+                for (int i = 0; i < calls; i++) {
+                    cursor = content.page(3, Category.Laugh, 10, OrdinalBitmap.EMPTY, i % 20 == 0 ? null : cursor).getNextCursor();
+                }
+                micros[s] = (System.nanoTime() - started) / 1e3 / calls;
+                report.row("%,9d items: curated(10) %6.2f us, page(10) %6.2f us", sizes[s], curated, micros[s]);
+            }
+        } finally {
+            writeCatalog(catalogFile, 300);
+            content.reloadAsync().get();
+        }
+        // 500x the items, same page: anything near linear would be hundreds of times slower
+        assertThat(micros[sizes.length - 1]).isLessThan(5 * Math.max(1.0, micros[0]));
+    }
+
+    static void writeCatalog(Path file, int size) {
+        Category[] categories = Category.values();
+        Random random = new Random(size);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < size; i++) {
+                out.write("{\"id\":\"g" + i + "\",\"category\":\"" + categories[i % categories.length]
+                        + "\",\"type\":\"text\",\"text\":\"Generated item " + i + "\",\"score\":" + (random.nextInt(14) - 3) + "}");
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+// src/test/java/com/moodrise/service/DayClockTest.java
+package com.moodrise.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cached days per zone on a clock the test moves: midnight in each zone,
+ * with and without the tick, days that are not 24 hours long, and
+ * timestamps outside the cached day.
+ */
+class DayClockTest {
+
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private final MutableClock time = new MutableClock(Instant.parse("2026-03-07T14:59:59Z"), ZoneOffset.UTC);
+    private final DayClock clock = new DayClock(time);
+
+    @Test
+    void eachZoneRollsOverAtItsOwnMidnight() {
+        // 23:59:59 in Tokyo, 14:59:59 in UTC
+        assertThat(day(clock.today(TOKYO))).isEqualTo("2026-03-07");
+        assertThat(day(clock.today(null))).isEqualTo("2026-03-07");
+
+        time.advance(Duration.ofSeconds(1));
+        assertThat(day(clock.today(TOKYO))).as("before the tick").isEqualTo("2026-03-08");
+        clock.refresh();
+        assertThat(day(clock.today(TOKYO))).isEqualTo("2026-03-08");
+        assertThat(day(clock.today(null))).as("server zone still on the 7th").isEqualTo("2026-03-07");
+
+        time.set(Instant.parse("2026-03-08T00:00:00Z"));
+        clock.refresh();
+        assertThat(day(clock.today(null))).isEqualTo("2026-03-08");
+    }
+
+    @Test
+    void oldTimestampsGetTheirOwnDayWithoutMovingTodayBack() {
+        long now = time.millis();
+        long twoDaysAgo = now - Duration.ofDays(2).toMillis();
+        assertThat(day(clock.today(TOKYO))).isEqualTo("2026-03-07");
+        assertThat(day(clock.epochDay(TOKYO, twoDaysAgo))).isEqualTo("2026-03-05");
+        assertThat(day(clock.today(TOKYO))).isEqualTo("2026-03-07");
+        assertThat(clock.dayEnd(TOKYO, now)).isEqualTo(Instant.parse("2026-03-07T15:00:00Z").toEpochMilli());
+    }
+
+    @Test
+    void daysAcrossDaylightSavingEndAtMidnight() {
+        // New York springs forward on 2026-03-08: a 23-hour day
+        time.set(Instant.parse("2026-03-08T12:00:00Z"));
+        long end = clock.dayEnd(NEW_YORK, time.millis());
+        assertThat(Instant.ofEpochMilli(end)).isEqualTo(Instant.parse("2026-03-09T04:00:00Z"));
+        assertThat(day(clock.today(NEW_YORK))).isEqualTo("2026-03-08");
+
+        time.set(Instant.ofEpochMilli(end - 1));
+        assertThat(day(clock.today(NEW_YORK))).isEqualTo("2026-03-08");
+        time.set(Instant.ofEpochMilli(end));
+        clock.refresh();
+        assertThat(day(clock.today(NEW_YORK))).isEqualTo("2026-03-09");
+        assertThat(clock.dayEnd(NEW_YORK, end) - end).as("a normal day again").isEqualTo(Duration.ofHours(24).toMillis());
+    }
+
+    private static String day(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+}
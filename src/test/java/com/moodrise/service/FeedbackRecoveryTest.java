@@ -0,0 +1,179 @@
+// src/test/java/com/moodrise/service/FeedbackRecoveryTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.MoodRiseApplication;
+import com.moodrise.model.Reaction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restarts on the same data directory: scores come back from the latest
+ * snapshot plus the log after it, and a group torn by a crash mid-write is
+ * dropped whole while everything before it survives. The benchmark measures
+ * the restart after millions of reactions, with snapshots and without.
+ */
+class FeedbackRecoveryTest {
+
+    private static final String[] ITEMS = {"edu_01", "edu_02", "edu_03", "laugh_01", "laugh_02", "laugh_03"};
+
+    @Test
+    void restartRestoresSnapshotAndTail() throws Exception {
+        Path dir = AppTest.newDataDir();
+        Map<String, Long> expected = new HashMap<>();
+        try (ConfigurableApplicationContext app = start(dir, "moodrise.feedback-log.snapshot-every=50")) {
+            ContentService content = app.getBean(ContentService.class);
+            for (int i = 0; i < 200; i++) react(content, expected, ITEMS[i % ITEMS.length], i % 4 != 0);
+            awaitSnapshot(dir);
+        }
+        // no snapshots while running: what follows must come back from the log tail
+        try (ConfigurableApplicationContext app = start(dir, "moodrise.feedback-log.snapshot-every=1000000000")) {
+            ContentService content = app.getBean(ContentService.class);
+            assertThat(scores(content)).isEqualTo(expected);
+            for (int i = 0; i < 30; i++) react(content, expected, ITEMS[i % 2], true);
+        }
+        try (ConfigurableApplicationContext app = start(dir)) {
+            assertThat(scores(app.getBean(ContentService.class))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void tornLastGroupIsDroppedWhole() throws Exception {
+        Path dir = AppTest.newDataDir();
+        Map<String, Long> expected = new HashMap<>();
+        try (ConfigurableApplicationContext app = start(dir)) {
+            ContentService content = app.getBean(ContentService.class);
+            for (int i = 0; i < 40; i++) react(content, expected, ITEMS[i % ITEMS.length], true);
+            Thread.sleep(50);   // durable, in groups of their own
+            content.applyFeedback("laugh_03", Reaction.smile);
+        }
+        // the crash hit while the last group was half written
+        Path segment = lastSegment(dir);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            ch.truncate(lastFrame(ch) + 12);
+        }
+        try (ConfigurableApplicationContext app = start(dir)) {
+            assertThat(scores(app.getBean(ContentService.class))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void recoveryOfFiveMillionReactions() throws Exception {
+        int items = 10_000, threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        long total = 5_000_000, perThread = total / threads;
+        try (BenchmarkReport report = new BenchmarkReport("feedback-log-5m-reactions")) {
+            report.row("%d cores, %d threads, %,d items", Runtime.getRuntime().availableProcessors(), threads, items);
+            for (String snapshotEvery : new String[] {"200000", "1000000000000"}) {
+                Path dir = AppTest.newDataDir();
+                Path catalog = dir.resolve("catalog.jsonl");
+                ContentServiceFeedTest.writeCatalog(catalog, items);
+                String[] props = {"moodrise.catalog.path=" + catalog, "moodrise.feedback-log.snapshot-every=" + snapshotEvery};
+                long began;
+                try (ConfigurableApplicationContext app = start(dir, props)) {
+                    ContentService content = app.getBean(ContentService.class);
+                    began = System.nanoTime();
+                    List<Thread> writers = new ArrayList<>();
+                    for (int t = 0; t < threads; t++) {
+                        Thread w = new Thread(() -> {
+                            Random random = new Random();
+                            for (long i = 0; i < perThread; i++) {
+                                content.applyFeedback("g" + random.nextInt(items), random.nextInt(4) == 0 ? Reaction.sad : Reaction.smile);
+                            }
+                        });
+                        w.start();
+                        writers.add(w);
+                    }
+                    for (Thread w : writers) w.join();
+                }   // closing drains the log, so the time covers durable writes
+                double writeSecs = (System.nanoTime() - began) / 1e9;
+
+                began = System.nanoTime();
+                try (ConfigurableApplicationContext app = start(dir, props)) {
+                    double recoverSecs = (System.nanoTime() - began) / 1e9;
+                    report.row("snapshot every %s: write %,.0f reactions/s durable, restart %.2f s to a started context",
+                            snapshotEvery, perThread * threads / writeSecs, recoverSecs);
+                    assertThat(scores(app.getBean(ContentService.class))).hasSize(items);
+                }
+            }
+        }
+    }
+
+    private static void react(ContentService content, Map<String, Long> expected, String itemId, boolean smile) {
+        content.applyFeedback(itemId, smile ? Reaction.smile : Reaction.sad);
+        // items back at zero read the same as untouched ones
+        if (expected.merge(itemId, smile ? 1L : -1L, Long::sum) == 0) expected.remove(itemId);
+    }
+
+    // raw totals per item, before the floor: what the log holds
+    private static Map<String, Long> scores(ContentService content) {
+        ScoreBoard board = (ScoreBoard) ReflectionTestUtils.getField(content, "scores");
+        Map<String, Long> totals = new HashMap<>();
+        for (int ord = 0; ord < board.capacity(); ord++) {
+            String id = board.id(ord);
+            if (id == null) continue;
+            long raw = board.score(ord, 1_000_000) - 1_000_000L;   // a base far above the floor
+            if (raw != 0) totals.put(id, raw);
+        }
+        return totals;
+    }
+
+    private static ConfigurableApplicationContext start(Path dir, String... properties) {
+        // as arguments, so they override application.properties
+        List<String> args = new ArrayList<>(List.of("--moodrise.data.dir=" + dir, "--moodrise.feedback-log.flush-millis=1",
+                "--moodrise.user-log.enabled=false"));
+        for (String p : properties) args.add("--" + p);
+        return new SpringApplicationBuilder(MoodRiseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static void awaitSnapshot(Path dir) throws IOException, InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            try (Stream<Path> files = Files.list(dir.resolve("feedback"))) {
+                // the first snapshot is written on start; wait for one taken while running
+                if (files.map(p -> p.getFileName().toString()).anyMatch(n -> n.endsWith(".snap") && !n.equals("scores-0000000001.snap"))) return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no feedback snapshot written");
+    }
+
+    private static Path lastSegment(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("feedback"))) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log"))
+                    .filter(p -> p.toFile().length() > 0)
+                    .max(Comparator.naturalOrder()).orElseThrow();
+        }
+    }
+
+    // offset of the last [length][crc32c][payload] frame in a segment
+    private static long lastFrame(FileChannel ch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        long at = 0, last = -1;
+        while (at < ch.size()) {
+            header.clear();
+            ch.read(header, at);
+            last = at;
+            at += 8 + header.getInt(0);
+        }
+        assertThat(last).isPositive();
+        return last;
+    }
+}
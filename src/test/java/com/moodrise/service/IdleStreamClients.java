@@ -0,0 +1,67 @@
+// src/test/java/com/moodrise/service/IdleStreamClients.java
+package com.moodrise.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client ends of idle event streams, run as a process of its own so the
+ * server's heap and file limit hold server ends only. Opens {@code count}
+ * streams for users {@code <prefix>0..}, prints {@code open} once all are
+ * connected, then the heartbeats seen so far once a second.
+ *
+ * <p>Usage: {@code IdleStreamClients <port> <count> <prefix>}
+ */
+final class IdleStreamClients {
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]), count = Integer.parseInt(args[1]);
+        try (Selector selector = Selector.open()) {
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            long beats = 0;
+            for (int i = 0; i < count; i++) {
+                SocketChannel c = SocketChannel.open(new InetSocketAddress("localhost", port));
+                String request = "GET /api/events?userId=" + args[2] + i + " HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n";
+                c.write(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+                c.configureBlocking(false);
+                c.register(selector, SelectionKey.OP_READ);
+                if (i % 1000 == 999) beats += drain(selector, buf, 0);
+            }
+            System.out.println("open");
+            long next = System.nanoTime();
+            while (true) {
+                beats += drain(selector, buf, 100);
+                if (System.nanoTime() >= next) {
+                    System.out.println("beats " + beats);
+                    next += 1_000_000_000L;
+                }
+            }
+        }
+    }
+
+    // reads whatever arrived; counts heartbeat comments (":\n\n")
+    private static long drain(Selector selector, ByteBuffer buf, long waitMillis) throws IOException {
+        if ((waitMillis == 0 ? selector.selectNow() : selector.select(waitMillis)) == 0) return 0;
+        long beats = 0;
+        for (SelectionKey key : selector.selectedKeys()) {
+            SocketChannel c = (SocketChannel) key.channel();
+            buf.clear();
+            int n = c.read(buf);
+            if (n < 0) {
+                key.cancel();
+                c.close();
+                continue;
+            }
+            for (int i = 0; i + 2 < n; i++) {
+                if (buf.get(i) == ':' && buf.get(i + 1) == '\n' && buf.get(i + 2) == '\n') beats++;
+            }
+        }
+        selector.selectedKeys().clear();
+        return beats;
+    }
+}
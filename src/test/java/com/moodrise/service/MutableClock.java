@@ -0,0 +1,47 @@
+// src/test/java/com/moodrise/service/MutableClock.java
+package com.moodrise.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/** A clock that only moves when a test moves it. */
+public final class MutableClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile long millis;
+
+    public MutableClock(Instant start, ZoneId zone) {
+        this.millis = start.toEpochMilli();
+        this.zone = zone;
+    }
+
+    public void advance(Duration by) {
+        millis += by.toMillis();
+    }
+
+    public void set(Instant at) {
+        millis = at.toEpochMilli();
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new MutableClock(instant(), zone);
+    }
+}
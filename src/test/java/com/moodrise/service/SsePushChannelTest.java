@@ -0,0 +1,198 @@
+// src/test/java/com/moodrise/service/SsePushChannelTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.MoodRiseApplication;
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Event streams over a real connection. A client that stops reading backs
+ * up its own queue only: its heartbeats are skipped, it is closed once the
+ * queue overflows, and the user's other stream keeps getting every event.
+ * The benchmark holds idle streams open and measures what each one costs.
+ */
+class SsePushChannelTest {
+
+    private static final String PAYLOAD = "x".repeat(256 * 1024);
+    private static final int TARGET_STREAMS = 100_000;
+
+    private ServletWebServerApplicationContext app;
+
+    @AfterEach
+    void stop() {
+        if (app != null) app.close();
+    }
+
+    @Test
+    void stalledClientOverflowsAloneAndIsClosed() throws Exception {
+        int port = start("--moodrise.push.heartbeat=100ms", "--moodrise.push.queue-per-stream=64",
+                "--moodrise.timers.tick=10ms");
+        SsePushChannel push = app.getBean(SsePushChannel.class);
+
+        try (Socket stalled = new Socket(); Socket reading = new Socket()) {
+            stalled.setReceiveBufferSize(4096);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            request(stalled, "sse-user");
+            reading.connect(new InetSocketAddress("localhost", port));
+            request(reading, "sse-user");
+            AtomicBoolean sawDone = new AtomicBoolean();
+            Thread reader = new Thread(() -> readUntil(reading, "event:done", sawDone));
+            reader.start();
+            awaitStreams(push, 2);
+
+            // more than the socket buffers hold: the stalled stream's writer blocks, its queue fills
+            for (int i = 0; i < 24; i++) push.push("sse-user", "big", PAYLOAD);
+            Thread.sleep(500);
+            assertThat(push.beatsSkipped()).as("beats skipped while writes are pending").isPositive();
+            assertThat(push.overflows()).isZero();
+
+            for (int i = 0; i < 200 && push.overflows() == 0; i++) push.push("sse-user", "big", PAYLOAD);
+            assertThat(push.overflows()).isEqualTo(1);
+            assertThat(push.openStreams()).isEqualTo(1);
+
+            push.push("sse-user", "done", "ok");
+            reader.join(20_000);
+            assertThat(sawDone).as("the reading stream got every event").isTrue();
+        }
+    }
+
+    /**
+     * Idle streams toward 100k on one node, as many as this process's file
+     * limit allows, each beating every second. The client ends run in child
+     * processes, so the heap measured here after a GC is the server's alone:
+     * the connection, its async request and emitter, and the user behind it.
+     */
+    @Test
+    @Tag("benchmark")
+    void idleStreams() throws Exception {
+        int port = start("--moodrise.push.heartbeat=1s", "--moodrise.timers.tick=50ms");
+        SsePushChannel push = app.getBean(SsePushChannel.class);
+        long fdLimit = ((UnixOperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getMaxFileDescriptorCount();
+        int count = (int) Math.min(TARGET_STREAMS, fdLimit - 2_000);
+        int perClient = (int) Math.min(count, fdLimit - 1_000);   // the children get the same limit
+
+        List<Process> clients = new ArrayList<>();
+        try (BenchmarkReport report = new BenchmarkReport("sse-idle-streams")) {
+            report.row("%d cores, fd limit %d: %,d of the %,d target streams, client ends in %d other processes",
+                    Runtime.getRuntime().availableProcessors(), fdLimit, count, TARGET_STREAMS, (count + perClient - 1) / perClient);
+            long heapBefore = usedHeapAfterGc();
+            int threadsBefore = Thread.activeCount();
+            long began = System.nanoTime();
+            List<AtomicLong> beats = new ArrayList<>();
+            CountDownLatch opened = new CountDownLatch((count + perClient - 1) / perClient);
+            for (int from = 0; from < count; from += perClient) {
+                Process client = new ProcessBuilder(ProcessHandle.current().info().command().orElse("java"),
+                        "-cp", System.getProperty("java.class.path"), IdleStreamClients.class.getName(),
+                        String.valueOf(port), String.valueOf(Math.min(perClient, count - from)), "idle-" + from + "-")
+                        .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                clients.add(client);
+                AtomicLong seen = new AtomicLong();
+                beats.add(seen);
+                Thread reader = new Thread(() -> follow(client, opened, seen));
+                reader.setDaemon(true);
+                reader.start();
+            }
+            assertThat(opened.await(10, TimeUnit.MINUTES)).isTrue();
+            while (push.openStreams() < count && System.nanoTime() - began < 600_000_000_000L) Thread.sleep(100);
+            double openSecs = (System.nanoTime() - began) / 1e9;
+            report.row("open:    %,d streams in %.1f s", push.openStreams(), openSecs);
+
+            // beats that piled up while the rest were opening, then a clean window
+            Thread.sleep(5_000);
+            long before = beats.stream().mapToLong(AtomicLong::get).sum();
+            Thread.sleep(5_000);
+            long window = beats.stream().mapToLong(AtomicLong::get).sum() - before;
+            report.row("idle:    %,d heartbeats in 5 s (%,d expected)", window, 5L * count);
+
+            long heap = usedHeapAfterGc() - heapBefore;
+            report.row("memory:  %,d KB heap in all, %,d bytes per stream, %,d MB at %,d streams; %d threads before, %d with streams open",
+                    heap / 1024, heap / count, heap / count * TARGET_STREAMS >> 20, TARGET_STREAMS, threadsBefore, Thread.activeCount());
+        } finally {
+            clients.forEach(Process::destroy);
+        }
+    }
+
+    // a client process's output: "open" once connected, then its heartbeat count every second
+    private static void follow(Process client, CountDownLatch opened, AtomicLong beats) {
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII))) {
+            for (String line; (line = out.readLine()) != null; ) {
+                if (line.equals("open")) opened.countDown();
+                else if (line.startsWith("beats ")) beats.set(Long.parseLong(line.substring(6)));
+            }
+        } catch (IOException e) {
+            // the process was stopped
+        }
+    }
+
+    private int start(String... properties) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off",
+                "--moodrise.data.dir=" + AppTest.newDataDir()));
+        args.addAll(List.of(properties));
+        app = (ServletWebServerApplicationContext) new SpringApplicationBuilder(MoodRiseApplication.class)
+                .run(args.toArray(String[]::new));
+        return app.getWebServer().getPort();
+    }
+
+    private static String requestLine(String userId) {
+        return "GET /api/events?userId=" + userId + " HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n";
+    }
+
+    private static void request(Socket socket, String userId) throws IOException {
+        socket.getOutputStream().write(requestLine(userId).getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+    }
+
+    private static void readUntil(Socket socket, String marker, AtomicBoolean seen) {
+        byte[] buf = new byte[64 * 1024];
+        String tail = "";
+        try (InputStream in = socket.getInputStream()) {
+            for (int n; (n = in.read(buf)) > 0; ) {
+                String chunk = tail + new String(buf, 0, n, StandardCharsets.US_ASCII);
+                if (chunk.contains(marker)) {
+                    seen.set(true);
+                    return;
+                }
+                tail = chunk.substring(Math.max(0, chunk.length() - marker.length()));
+            }
+        } catch (IOException e) {
+            // closed by the test
+        }
+    }
+
+    private static void awaitStreams(SsePushChannel push, int n) throws InterruptedException {
+        for (int i = 0; i < 500 && push.openStreams() < n; i++) Thread.sleep(10);
+        assertThat(push.openStreams()).isEqualTo(n);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
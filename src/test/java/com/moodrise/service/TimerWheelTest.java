@@ -0,0 +1,153 @@
+// src/test/java/com/moodrise/service/TimerWheelTest.java
+package com.moodrise.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The wheel on a clock the test moves. Timeouts from a second to past the
+ * top level's range, cancels, tasks that schedule again, and clock jumps the
+ * wheel has to catch up on: each timeout fires on the first tick at or after
+ * its deadline, once, and never after it was cancelled.
+ */
+class TimerWheelTest {
+
+    private static final long TICK = 1000;
+
+    private final MutableClock time = new MutableClock(Instant.parse("2026-03-01T00:00:00.300Z"), ZoneOffset.UTC);
+    private final TimerWheel wheel = wheel(time);
+
+    private static TimerWheel wheel(MutableClock time) {
+        TimerWheel wheel = new TimerWheel(new DayClock(time));
+        ReflectionTestUtils.setField(wheel, "tick", Duration.ofMillis(TICK));
+        wheel.init();
+        return wheel;
+    }
+
+    @Test
+    void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        List<Long> fired = new ArrayList<>();
+        long now = time.millis();
+        wheel.schedule(now + 2_500, t -> fired.add(time.millis()));
+
+        time.advance(Duration.ofMillis(1_500));
+        wheel.advance();
+        assertThat(fired).isEmpty();
+        time.advance(Duration.ofMillis(1_100));   // past the deadline, still short of its tick
+        wheel.advance();
+        assertThat(fired).isEmpty();
+        time.advance(Duration.ofMillis(400));
+        wheel.advance();
+        assertThat(fired).hasSize(1);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule(time.millis() - 60_000, t -> fired.add(time.millis()));
+        wheel.advance();
+        assertThat(fired).isEmpty();
+        time.advance(Duration.ofMillis(TICK));
+        wheel.advance();
+        assertThat(fired).hasSize(1);
+    }
+
+    @Test
+    void cancelOnlyWhilePending() {
+        TimerWheel.Timeout kept = wheel.schedule(time.millis() + 5_000, t -> { });
+        TimerWheel.Timeout dropped = wheel.schedule(time.millis() + 5_000, t -> { throw new AssertionError("cancelled timeout fired"); });
+        assertThat(dropped.cancel()).isTrue();
+        assertThat(dropped.cancel()).isFalse();
+
+        time.advance(Duration.ofSeconds(6));
+        wheel.advance();
+        assertThat(kept.cancel()).as("already fired").isFalse();
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void randomizedThreeDays() {
+        Random random = new Random(20);
+        Map<TimerWheel.Timeout, Long> dueTick = new HashMap<>();       // pending, by the tick they must fire on
+        PriorityQueue<Map.Entry<TimerWheel.Timeout, Long>> byDue = new PriorityQueue<>(Map.Entry.comparingByValue());
+        Set<TimerWheel.Timeout> fired = new HashSet<>();
+        long[] scheduled = {0};
+        long[] processed = {time.millis() / TICK};                     // the wheel's last tick
+        List<TimerWheel.Timeout> recent = new ArrayList<>();           // candidates for cancelling
+
+        class Schedule {
+            void at(long deadline) {
+                long due = Math.max(Math.floorDiv(deadline + TICK - 1, TICK), processed[0] + 1);
+                TimerWheel.Timeout[] self = new TimerWheel.Timeout[1];
+                self[0] = wheel.schedule(deadline, t -> {
+                    assertThat(t).isSameAs(self[0]);
+                    assertThat(fired.add(t)).as("fired once").isTrue();
+                    Long expected = dueTick.remove(t);
+                    assertThat(expected).as("fired while pending").isNotNull();
+                    assertThat(time.millis() / TICK).as("fired on its tick").isGreaterThanOrEqualTo(expected);
+                    // some tasks schedule again from inside the wheel, as heartbeats do
+                    if (random.nextInt(20) == 0) at(time.millis() + 1 + random.nextInt(120_000));
+                });
+                dueTick.put(self[0], due);
+                recent.add(self[0]);
+                byDue.add(Map.entry(self[0], due));
+                scheduled[0]++;
+            }
+        }
+        Schedule schedule = new Schedule();
+
+        long end = time.millis() + Duration.ofDays(3).toMillis();
+        int jumps = 0, cancels = 0;
+        while (time.millis() < end) {
+            long now = time.millis();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                long delay = switch (random.nextInt(10)) {
+                    case 0, 1, 2, 3 -> random.nextInt(300_000);                     // level 0 and 1
+                    case 4, 5, 6 -> random.nextInt(20 * 60_000);                    // re-checks
+                    case 7, 8 -> (long) random.nextInt(4 * 24 * 3600) * 1000;       // level 2
+                    default -> (long) (200 + random.nextInt(200)) * 24 * 3600_000;  // level 3, past the test
+                };
+                schedule.at(now + delay - 500 + random.nextInt(1000));
+            }
+            if (random.nextInt(4) == 0 && !recent.isEmpty()) {
+                TimerWheel.Timeout t = recent.remove(random.nextInt(recent.size()));
+                boolean pending = dueTick.containsKey(t);
+                assertThat(t.cancel()).as("cancel reports whether it was pending").isEqualTo(pending);
+                if (pending) {
+                    dueTick.remove(t);
+                    cancels++;
+                }
+            }
+            if (recent.size() > 2000) recent.subList(0, 1000).clear();
+
+            // mostly under a tick, now and then a stall the wheel must catch up on
+            boolean jump = random.nextInt(2000) == 0;
+            time.advance(Duration.ofMillis(jump ? 60_000 + random.nextInt(3_600_000) : random.nextInt(3 * (int) TICK)));
+            if (jump) jumps++;
+            wheel.advance();
+            processed[0] = time.millis() / TICK;
+
+            // everything due by now fired, in this advance or an earlier one
+            while (!byDue.isEmpty() && byDue.peek().getValue() <= processed[0]) {
+                TimerWheel.Timeout t = byDue.poll().getKey();
+                assertThat(dueTick).as("due timeout fired").doesNotContainKey(t);
+            }
+            assertThat(wheel.pending()).isEqualTo(dueTick.size());
+        }
+
+        assertThat(scheduled[0]).isGreaterThan(100_000);
+        assertThat(fired.size() + cancels + dueTick.size()).isEqualTo(scheduled[0]);
+        assertThat(jumps).isPositive();
+        assertThat(cancels).isPositive();
+        // the far ones are still waiting, none early
+        assertThat(dueTick.values()).allMatch(due -> due > processed[0]);
+    }
+}
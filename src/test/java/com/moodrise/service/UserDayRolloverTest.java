@@ -0,0 +1,102 @@
+// src/test/java/com/moodrise/service/UserDayRolloverTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.model.DaySummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Users' days on a clock the test moves. Kiritimati (UTC+14) and Pago Pago
+ * (UTC-11) are always on different dates: switching between them must never
+ * take a user back to an earlier date once the day has activity, so it cannot
+ * clear the daily cap, while a new user's first zone still sets its date.
+ */
+@Import(UserDayRolloverTest.Clocks.class)
+class UserDayRolloverTest extends AppTest {
+
+    private static final String EAST = "Pacific/Kiritimati";
+    private static final String WEST = "Pacific/Pago_Pago";
+    // 12:00 UTC: the 11th in Kiritimati, 01:00 on the 10th in Pago Pago
+    private static final MutableClock TIME = new MutableClock(Instant.parse("2026-03-10T12:00:00Z"), ZoneId.of(EAST));
+
+    @TestConfiguration
+    static class Clocks {
+        @Bean
+        @Primary
+        DayClock testDayClock() {
+            return new DayClock(TIME);
+        }
+    }
+
+    @Autowired
+    UserService users;
+
+    @Test
+    void movingWestKeepsTheDayAndItsUsage() {
+        TIME.set(Instant.parse("2026-03-10T12:00:00Z"));
+        users.startSession("roll-west", 3, EAST);
+        TIME.advance(Duration.ofMinutes(10));
+        users.moodCheck("roll-west", 4);
+
+        users.startSession("roll-west", 4, WEST);
+        assertThat(users.limitStatus("roll-west").getUsedMillisToday()).isEqualTo(Duration.ofMinutes(10).toMillis());
+        assertThat(days("roll-west")).containsOnlyKeys(LocalDate.parse("2026-03-11"));
+
+        // Pago Pago reaches the 11th: still the same day
+        TIME.set(Instant.parse("2026-03-11T11:30:00Z"));
+        users.recordInteraction("roll-west");
+        assertThat(days("roll-west")).containsOnlyKeys(LocalDate.parse("2026-03-11"));
+        // and the 12th: a new day
+        TIME.set(Instant.parse("2026-03-12T11:30:00Z"));
+        assertThat(users.limitStatus("roll-west").getUsedMillisToday()).isZero();
+    }
+
+    @Test
+    void alternatingZonesDoesNotClearTheCap() {
+        TIME.set(Instant.parse("2026-03-10T12:00:00Z"));
+        users.startSession("roll-east", 3, WEST);
+        TIME.advance(Duration.ofMinutes(5));
+        users.moodCheck("roll-east", 3);
+
+        // east is a later date: a new day, once
+        users.startSession("roll-east", 3, EAST);
+        assertThat(users.limitStatus("roll-east").getUsedMillisToday()).isZero();
+        TIME.advance(Duration.ofMinutes(20));
+        users.moodCheck("roll-east", 3);
+        long used = users.limitStatus("roll-east").getUsedMillisToday();
+        assertThat(used).isEqualTo(Duration.ofMinutes(20).toMillis());
+
+        for (int i = 0; i < 4; i++) {
+            users.startSession("roll-east", 3, i % 2 == 0 ? WEST : EAST);
+            assertThat(users.limitStatus("roll-east").getUsedMillisToday()).as("switch " + i).isEqualTo(used);
+        }
+        assertThat(days("roll-east")).containsOnlyKeys(LocalDate.parse("2026-03-10"), LocalDate.parse("2026-03-11"));
+    }
+
+    @Test
+    void firstZoneOfANewUserSetsItsDate() {
+        TIME.set(Instant.parse("2026-03-10T12:00:00Z"));
+        // created on the server zone's date, the 11th, then moved back with no activity yet
+        users.startSession("roll-new", 2, WEST);
+        TIME.advance(Duration.ofMinutes(1));
+        users.moodCheck("roll-new", 3);
+        assertThat(days("roll-new")).containsOnlyKeys(LocalDate.parse("2026-03-10"));
+    }
+
+    private Map<LocalDate, DaySummary> days(String userId) {
+        return users.calendar(userId, null, null);
+    }
+}
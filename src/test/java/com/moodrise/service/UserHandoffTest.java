@@ -0,0 +1,88 @@
+// src/test/java/com/moodrise/service/UserHandoffTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.model.UserState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One node on both ends of a handoff. The holder keeps a user until it is
+ * told the owner adopted it; the owner keeps whichever copy has seen more
+ * events, so a user pulled and then pushed, or pushed twice after a timeout,
+ * is adopted once and never rolled back.
+ */
+class UserHandoffTest extends AppTest {
+
+    @Autowired
+    UserService users;
+
+    @Test
+    void handOffKeepsTheUserUntilReleased() {
+        users.startSession("h-keep", 3, null);
+        byte[] state = users.handOff("h-keep");
+        assertThat(users.handOff("h-keep")).as("a second pull gets the same state").isEqualTo(state);
+        assertThat(users.latestMood("h-keep")).isEqualTo(3);
+
+        assertThat(users.release("h-keep", state)).isTrue();
+        assertThat(users.handOff("h-keep")).isNull();
+        assertThat(users.release("h-keep", state)).as("already gone").isTrue();
+    }
+
+    @Test
+    void releaseKeepsAUserThatChangedSinceItWasHandedOff() {
+        users.startSession("h-moved", 2, null);
+        byte[] state = users.handOff("h-moved");
+        users.hide("h-moved", "edu_01");
+
+        assertThat(users.release("h-moved", state)).isFalse();
+        assertThat(users.hiddenItemIds("h-moved")).containsExactly("edu_01");
+    }
+
+    @Test
+    void olderCopyArrivingLaterDoesNotRollBack() {
+        users.startSession("h-twice", 2, null);
+        byte[] pushed = users.handOff("h-twice");
+        users.release("h-twice", pushed);
+
+        // pulled first, then changed on the new owner, then the holder's push arrives
+        users.adopt(pushed);
+        users.hide("h-twice", "mot_01");
+        int seq = users.inspect("h-twice", UserState::getEventSeq);
+        users.adopt(pushed);
+
+        assertThat(users.inspect("h-twice", UserState::getEventSeq)).isEqualTo(seq);
+        assertThat(users.hiddenItemIds("h-twice")).containsExactly("mot_01");
+    }
+
+    @Test
+    void newerCopyReplacesOneMadeHereInTheMeantime() {
+        users.startSession("h-newer", 4, null);
+        users.hide("h-newer", "laugh_02");
+        byte[] handed = users.handOff("h-newer");
+        users.release("h-newer", handed);
+
+        // a request got here before the handoff and started the user afresh
+        users.recordInteraction("h-newer");
+        users.adopt(handed);
+
+        assertThat(users.latestMood("h-newer")).isEqualTo(4);
+        assertThat(users.hiddenItemIds("h-newer")).containsExactly("laugh_02");
+    }
+
+    @Test
+    void coldCopyIsReconciledToo() {
+        users.startSession("h-cold", 5, null);
+        byte[] handed = users.handOff("h-cold");
+        ReflectionTestUtils.invokeMethod(users, "evict", "h-cold", Long.MAX_VALUE);
+        assertThat(users.handOff("h-cold")).as("pulled from the cold tier").isEqualTo(handed);
+
+        users.adopt(handed);
+        assertThat(users.latestMood("h-cold")).isEqualTo(5);
+        assertThat(users.release("h-cold", handed)).isTrue();
+        assertThat(users.handOff("h-cold")).isNull();
+    }
+}
@@ -0,0 +1,171 @@
+// src/test/java/com/moodrise/service/UserRecoveryTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.MoodRiseApplication;
+import com.moodrise.model.UserState;
+import com.moodrise.persistence.UserEvent;
+import com.moodrise.persistence.UserEventLog;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restarts on the same data directory: users come back from the latest
+ * snapshot plus the log after it, events a snapshot already holds are not
+ * applied twice, released users stay gone and imported ones come back, idle
+ * ones come back in the cold tier. The benchmark measures sustained writes
+ * and the restart after 10M events.
+ */
+class UserRecoveryTest {
+
+    private static final String[] LAUGH = {"laugh_01", "laugh_02", "laugh_03"};
+
+    @Test
+    void restartRestoresSnapshotAndTail() throws Exception {
+        Path dir = AppTest.newDataDir();
+        try (ConfigurableApplicationContext app = start(dir, "moodrise.user-log.snapshot-every=40")) {
+            UserService users = app.getBean(UserService.class);
+            for (int i = 0; i < 30; i++) {
+                String userId = "r-" + i;
+                users.startSession(userId, 1 + i % 5, null);
+                users.moodCheck(userId, 1 + (i + 1) % 5);
+                users.hide(userId, LAUGH[i % LAUGH.length]);
+                users.endSession(userId, 1 + (i + 2) % 5);
+            }
+            awaitSnapshot(dir);
+        }
+
+        Map<String, View> expected = new HashMap<>();
+        // no snapshots while running: what follows must come back from the log tail
+        try (ConfigurableApplicationContext app = start(dir, "moodrise.user-log.snapshot-every=1000000000")) {
+            UserService users = app.getBean(UserService.class);
+            UserEventLog events = app.getBean(UserEventLog.class);
+            users.startSession("r-0", 4, null);
+            users.hide("r-0", "edu_01");
+            int seq = users.inspect("r-0", UserState::getEventSeq);
+            // at the last interaction, so replaying them adds no usage
+            long now = users.inspect("r-0", UserState::getLastInteractionMillis);
+            // logged after a snapshot that already held it, as when requests race the snapshot: skipped
+            events.append(UserEvent.hide("r-0", seq, now, "mot_01"));
+            // logged and never applied before the restart: replayed
+            events.append(UserEvent.hide("r-0", seq + 1, now, "mot_02"));
+
+            byte[] r1 = users.handOff("r-1");
+            users.release("r-1", r1);
+            users.adopt(r1);
+            users.release("r-2", users.handOff("r-2"));
+            for (int i = 0; i < 30; i++) expected.put("r-" + i, view(users, "r-" + i));
+            View r0 = expected.get("r-0");
+            List<String> hidden = new ArrayList<>(r0.hidden());
+            hidden.add("mot_02");
+            expected.put("r-0", new View(seq + 1, hidden.stream().sorted().toList(), r0.mood(), r0.nextCheck(), r0.used(), r0.days()));
+            assertThat(expected.get("r-2").seq()).isZero();
+        }
+
+        // everything idle by now: restored straight to the cold tier, faulted in on read
+        Thread.sleep(5);
+        try (ConfigurableApplicationContext app = start(dir, "moodrise.users.idle-evict-after=1ms")) {
+            UserService users = app.getBean(UserService.class);
+            assertThat((int) users.memoryReport().get("coldUsers")).isPositive();
+            for (Map.Entry<String, View> e : expected.entrySet()) {
+                assertThat(view(users, e.getKey())).as(e.getKey()).isEqualTo(e.getValue());
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void writeThroughputAndRecoveryOfTenMillionEvents() throws Exception {
+        Path dir = AppTest.newDataDir();
+        int userCount = 1_000_000, threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        long total = 10_000_000, perThread = total / threads;
+        try (BenchmarkReport report = new BenchmarkReport("user-log-10m-events")) {
+            report.row("%d cores, %d threads, %,d users", Runtime.getRuntime().availableProcessors(), threads, userCount);
+            long began = System.nanoTime();
+            try (ConfigurableApplicationContext app = start(dir)) {
+                UserService users = app.getBean(UserService.class);
+                began = System.nanoTime();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                try {
+                    List<Future<?>> done = new ArrayList<>();
+                    for (int t = 0; t < threads; t++) {
+                        done.add(pool.submit(() -> {
+                            ThreadLocalRandom random = ThreadLocalRandom.current();
+                            for (long i = 0; i < perThread; i++) {
+                                String userId = "bench-" + random.nextInt(userCount);
+                                switch ((int) (i & 7)) {
+                                    case 0 -> users.startSession(userId, 1 + random.nextInt(5), null);
+                                    case 1, 2 -> users.moodCheck(userId, 1 + random.nextInt(5));
+                                    case 7 -> users.endSession(userId, 1 + random.nextInt(5));
+                                    default -> users.recordInteraction(userId);
+                                }
+                            }
+                            return null;
+                        }));
+                    }
+                    for (Future<?> f : done) f.get();
+                } finally {
+                    pool.shutdown();
+                }
+            }   // closing drains the log, so the time covers durable writes
+            double writeSecs = (System.nanoTime() - began) / 1e9;
+            report.row("write:   %,d events in %.1f s, %,.0f events/s durable", perThread * threads, writeSecs, perThread * threads / writeSecs);
+
+            began = System.nanoTime();
+            try (ConfigurableApplicationContext app = start(dir)) {
+                double recoverSecs = (System.nanoTime() - began) / 1e9;
+                UserService users = app.getBean(UserService.class);
+                Map<String, Object> memory = users.memoryReport();
+                report.row("restart: %.1f s to a started context, %s hot and %s cold users",
+                        recoverSecs, memory.get("residentUsers"), memory.get("coldUsers"));
+                assertThat(users.userIds()).hasSizeGreaterThan(userCount * 9 / 10);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path dir, String... properties) {
+        // as arguments, so they override application.properties
+        List<String> args = new ArrayList<>(List.of("--moodrise.data.dir=" + dir, "--moodrise.user-log.partitions=2",
+                "--moodrise.user-log.flush-millis=1"));
+        for (String p : properties) args.add("--" + p);
+        return new SpringApplicationBuilder(MoodRiseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    // what a restart must bring back; lastAccessMillis is not persisted
+    private record View(int seq, List<String> hidden, Integer mood, Instant nextCheck, long used, Map<LocalDate, List<Object>> days) { }
+
+    private static View view(UserService users, String userId) {
+        Integer seq = users.inspect(userId, UserState::getEventSeq);
+        Map<LocalDate, List<Object>> days = new TreeMap<>();
+        users.calendar(userId, null, null).forEach((day, d) -> days.put(day, Arrays.asList(d.getMoodStart(), d.getMoodEnd(), d.getUsageMillis())));
+        return new View(seq == null ? 0 : seq, users.hiddenItemIds(userId).stream().sorted().toList(), users.latestMood(userId),
+                users.nextCheckTs(userId), users.limitStatus(userId).getUsedMillisToday(), days);
+    }
+
+    private static void awaitSnapshot(Path dir) throws IOException, InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            try (Stream<Path> files = Files.walk(dir.resolve("users").resolve("log"))) {
+                if (files.anyMatch(p -> p.getFileName().toString().endsWith(".snap"))) return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no user snapshot written");
+    }
+}
@@ -0,0 +1,157 @@
+// src/test/java/com/moodrise/service/UserServiceConcurrencyTest.java
+package com.moodrise.service;
+
+import com.moodrise.AppTest;
+import com.moodrise.BenchmarkReport;
+import com.moodrise.model.DaySummary;
+import com.moodrise.model.OrdinalBitmap;
+import com.moodrise.model.UserState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads on few users: every operation must land, each user's event
+ * sequence counting exactly the operations run on it. Usage is the sum of
+ * the gaps between a user's operations, so a lost update shows up as usage
+ * short of the time the session spanned; every hide must stick, and the
+ * calendar must agree with the limit. The benchmark spreads the same mix
+ * over many users to show throughput does not queue behind one lock.
+ */
+class UserServiceConcurrencyTest extends AppTest {
+
+    private static final String[] ITEMS = {"laugh_01", "laugh_02", "laugh_03", "edu_01", "edu_02", "edu_03", "mot_01", "mot_02", "mot_03"};
+
+    @Autowired
+    UserService users;
+    @Autowired
+    ContentService content;
+
+    @Test
+    void concurrentOperationsOnOneUserAreNotLost() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int userCount = 16, opsPerThread = 5_000;
+        long[] begun = new long[userCount];
+        for (int u = 0; u < userCount; u++) {
+            users.startSession("stress-" + u, 3, null);
+            begun[u] = users.inspect("stress-" + u, UserState::getSessionStartMillis);
+        }
+        AtomicIntegerArray ops = new AtomicIntegerArray(userCount);
+        AtomicIntegerArray hid = new AtomicIntegerArray(userCount);
+        AtomicIntegerArray endMoods = new AtomicIntegerArray(userCount);
+
+        run(threads, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < opsPerThread; i++) {
+                int u = random.nextInt(userCount);
+                String userId = "stress-" + u;
+                switch (random.nextInt(4)) {
+                    case 0 -> users.recordInteraction(userId);
+                    case 1 -> users.moodCheck(userId, 1 + random.nextInt(5));
+                    case 2 -> {
+                        int mood = 1 + random.nextInt(5);
+                        users.endSession(userId, mood);
+                        endMoods.getAndAccumulate(u, 1 << mood, (a, b) -> a | b);
+                    }
+                    default -> {
+                        int item = random.nextInt(ITEMS.length);
+                        users.hide(userId, ITEMS[item]);
+                        hid.getAndAccumulate(u, 1 << item, (a, b) -> a | b);
+                    }
+                }
+                ops.incrementAndGet(u);
+            }
+        });
+
+        for (int u = 0; u < userCount; u++) {
+            String userId = "stress-" + u;
+            OrdinalBitmap hidden = users.hidden(userId);
+            for (int item = 0; item < ITEMS.length; item++) {
+                if ((hid.get(u) & 1 << item) != 0) {
+                    assertThat(hidden.contains(content.ordinal(ITEMS[item]))).as(userId + " hid " + ITEMS[item]).isTrue();
+                }
+            }
+            // one logged event for the session start, one per operation
+            assertThat(users.inspect(userId, UserState::getEventSeq)).as(userId + " events").isEqualTo(1 + ops.get(u));
+            long used = users.limitStatus(userId).getUsedMillisToday();
+            // each operation adds the gap since the previous one, so the gaps add up to the span
+            assertThat(used).as(userId + " usage").isEqualTo(users.inspect(userId, UserState::getLastInteractionMillis) - begun[u]);
+            LocalDate day = LocalDate.now();
+            DaySummary today = users.calendar(userId, day, day).get(day);
+            // the calendar keeps whole seconds
+            assertThat(today.getUsageMillis()).as(userId + " calendar usage").isEqualTo(used / 1000 * 1000);
+            if (endMoods.get(u) != 0) {
+                assertThat(endMoods.get(u) & 1 << today.getMoodEnd()).as(userId + " mood end").isNotZero();
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughputHoldsUpWithThreads() throws Exception {
+        int userCount = 100_000;
+        for (int u = 0; u < userCount; u++) users.startSession("bench-" + u, 3, null);
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        double single = 0, worst = Double.MAX_VALUE;
+        try (BenchmarkReport report = new BenchmarkReport("user-ops-vs-threads")) {
+            report.row("%d cores", Runtime.getRuntime().availableProcessors());
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                long perThread = 200_000;
+                measure(threads, userCount, perThread / 4);     // warm up
+                long nanos = measure(threads, userCount, perThread);
+                double opsPerSec = threads * perThread / (nanos / 1e9);
+                if (threads == 1) single = opsPerSec;
+                worst = Math.min(worst, opsPerSec / single);
+                report.row("%2d threads: %,12.0f ops/s  x%.2f", threads, opsPerSec, opsPerSec / single);
+            }
+        }
+        // striped locks: more threads than cores may not help, but must not collapse into a convoy
+        assertThat(worst).isGreaterThan(0.5);
+    }
+
+    private long measure(int threads, int userCount, long perThread) throws Exception {
+        long begun = System.nanoTime();
+        run(threads, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long i = 0; i < perThread; i++) {
+                String userId = "bench-" + random.nextInt(userCount);
+                if ((i & 3) == 0) users.moodCheck(userId, 1 + random.nextInt(5));
+                else users.recordInteraction(userId);
+            }
+        });
+        return System.nanoTime() - begun;
+    }
+
+    private static void run(int threads, Worker task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                done.add(pool.submit(() -> {
+                    go.await();
+                    task.run(id);
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> f : done) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}
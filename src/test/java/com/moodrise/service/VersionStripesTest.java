@@ -0,0 +1,25 @@
+// src/test/java/com/moodrise/service/VersionStripesTest.java
+package com.moodrise.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stripe counts for the expected users, from none to past the int range's
+ * top powers of two.
+ */
+class VersionStripesTest {
+
+    @Test
+    void sizedToThePowerOfTwoAtOrAboveWithinBounds() {
+        assertThat(VersionStripes.sizeFor(0)).isEqualTo(1 << 16);
+        assertThat(VersionStripes.sizeFor(1_000)).isEqualTo(1 << 16);
+        assertThat(VersionStripes.sizeFor(1_000_000)).isEqualTo(1 << 20);
+        assertThat(VersionStripes.sizeFor(1 << 20)).isEqualTo(1 << 20);
+        assertThat(VersionStripes.sizeFor((1 << 20) + 1)).isEqualTo(1 << 21);
+        assertThat(VersionStripes.sizeFor(10_000_000)).isEqualTo(1 << 22);
+        assertThat(VersionStripes.sizeFor((1 << 30) + 1)).isEqualTo(1 << 22);
+        assertThat(VersionStripes.sizeFor(Integer.MAX_VALUE)).isEqualTo(1 << 22);
+    }
+}